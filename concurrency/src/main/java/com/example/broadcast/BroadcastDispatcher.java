@@ -0,0 +1,183 @@
+package com.example.broadcast;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Accepts events into a bounded multi-producer queue drained by a single dispatcher.
+// A dispatch cycle takes the pending events (at most `maxBatch`), builds and broadcasts them in order and waits
+// for their delivery, at most `deliveryTimeout`, before starting the next cycle. A burst of producers fills queue
+// slots instead of piling up executor tasks, and is rejected once the queue is full.
+public class BroadcastDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(BroadcastDispatcher.class.getName());
+
+    public enum Result {
+        ACCEPTED, QUEUE_FULL, CLOSED
+    }
+
+    private record Pending(Supplier<OutboundSseEvent> eventFactory, long enqueuedAt) {
+    }
+
+    private final Executor executor;
+    private final Function<OutboundSseEvent, CompletionStage<?>> broadcast;
+    private final int capacity;
+    private final int maxBatch;
+    private final Duration deliveryTimeout;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+    private volatile boolean closed;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public BroadcastDispatcher(Executor executor,
+                               Function<OutboundSseEvent, CompletionStage<?>> broadcast,
+                               int capacity,
+                               int maxBatch,
+                               Duration deliveryTimeout) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("capacity and maxBatch must be positive: " + capacity + ", " + maxBatch);
+        }
+        this.executor = executor;
+        this.broadcast = broadcast;
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.deliveryTimeout = deliveryTimeout;
+    }
+
+    // the event is only built by the dispatcher, in queue order, so the ids it claims are broadcast in order.
+    // a rejected submission has no side effects.
+    public Result submit(Supplier<OutboundSseEvent> eventFactory) {
+        if (closed) {
+            return Result.CLOSED;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            rejected.increment();
+            return Result.QUEUE_FULL;
+        }
+        queue.offer(new Pending(eventFactory, System.nanoTime()));
+        accepted.increment();
+        if (dispatching.compareAndSet(false, true) && !startCycle()) {
+            // the event has been dropped with the others queued
+            return Result.CLOSED;
+        }
+        return Result.ACCEPTED;
+    }
+
+    private void cycle() {
+        List<Pending> batch = new ArrayList<>();
+        Pending pending;
+        while (batch.size() < maxBatch && (pending = queue.poll()) != null) {
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            dispatching.set(false);
+            // an event offered after the poll above found no dispatcher running
+            if (!queue.isEmpty() && dispatching.compareAndSet(false, true)) {
+                startCycle();
+            }
+            return;
+        }
+        size.addAndGet(-batch.size());
+        cycles.increment();
+
+        var deliveries = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Pending next = batch.get(i);
+            deliveries[i] = deliver(next.eventFactory())
+                    .whenComplete((r, e) -> latency.record(System.nanoTime() - next.enqueuedAt()));
+        }
+        CompletableFuture.allOf(deliveries)
+                .whenComplete((r, e) -> startCycle());
+    }
+
+    // must be called with `dispatching` set. When the executor rejects the cycle, e.g. while shutting down,
+    // the queued events are dropped instead of waiting for a dispatcher which never runs.
+    private boolean startCycle() {
+        try {
+            executor.execute(this::cycle);
+            return true;
+        } catch (RejectedExecutionException e) {
+            int count = 0;
+            while (queue.poll() != null) {
+                count++;
+            }
+            size.addAndGet(-count);
+            dropped.add(count);
+            LOGGER.log(Level.WARNING, "dispatch cycle has been rejected, " + count + " queued events are dropped", e);
+            dispatching.set(false);
+            // an event queued meanwhile found the dispatcher still running
+            if (!queue.isEmpty() && dispatching.compareAndSet(false, true)) {
+                startCycle();
+            }
+            return false;
+        }
+    }
+
+    // a sink which stalls the delivery holds up the next cycle for `deliveryTimeout` at most.
+    private CompletableFuture<?> deliver(Supplier<OutboundSseEvent> eventFactory) {
+        OutboundSseEvent event;
+        try {
+            event = eventFactory.get();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "failed to build event", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return broadcast.apply(event).toCompletableFuture()
+                    .copy()
+                    .orTimeout(deliveryTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                    .whenComplete((r, e) -> {
+                        if (e instanceof TimeoutException) {
+                            timedOut.increment();
+                            LOGGER.log(Level.WARNING, "event {0} is still being delivered after {1}, not waiting for it",
+                                    new Object[]{event.getId(), deliveryTimeout});
+                        }
+                    });
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "failed to broadcast event: " + event.getId(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    public BroadcastStats stats() {
+        return new BroadcastStats(
+                size.get(),
+                capacity,
+                accepted.sum(),
+                rejected.sum(),
+                cycles.sum(),
+                timedOut.sum(),
+                dropped.sum(),
+                latency.snapshot()
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.broadcast;
+
+// `latency` is measured from accepting an event to its delivery by the broadcaster,
+// `timedOut` counts the deliveries the dispatcher stopped waiting for, `dropped` the accepted events
+// discarded because the executor rejected the dispatch cycle.
+public record BroadcastStats(
+        int queued,
+        int capacity,
+        long accepted,
+        long rejected,
+        long cycles,
+        long timedOut,
+        long dropped,
+        LatencyHistogram.Snapshot latency
+) {
+}
@@ -1,11 +1,14 @@
 package com.example.broadcast;
 
+import com.example.sse.SseHeartbeat;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.sse.OutboundSseEvent;
@@ -14,6 +17,8 @@ import jakarta.ws.rs.sse.SseBroadcaster;
 import jakarta.ws.rs.sse.SseEventSink;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,16 +28,31 @@ import java.util.logging.Logger;
 @Path("broadcast")
 public class BroadcasterResource {
     private final Logger LOGGER = Logger.getLogger(BroadcasterResource.class.getName());
+    // number of recent events kept for clients reconnecting with a Last-Event-ID.
+    static final int REPLAY_CAPACITY = Integer.getInteger("broadcast.replay.capacity", 1024);
+    // max number of accepted events waiting to be broadcast, and max number of events per dispatch cycle.
+    static final int QUEUE_CAPACITY = Integer.getInteger("broadcast.queue.capacity", 10_000);
+    static final int MAX_BATCH = Integer.getInteger("broadcast.queue.maxBatch", 256);
+    // max time a dispatch cycle waits for the delivery of its events to all the clients.
+    static final Duration DELIVERY_TIMEOUT = Duration.ofMillis(Long.getLong("broadcast.deliveryTimeoutMillis", 5_000));
+    static final String RETRY_AFTER_SECONDS = System.getProperty("broadcast.retryAfterSeconds", "1");
 
     private @Context Sse sse;
     private SseBroadcaster broadcaster;
+    private final SseReplayBuffer replayBuffer = new SseReplayBuffer(REPLAY_CAPACITY);
+    private BroadcastDispatcher dispatcher;
 
     @Inject
     private ManagedExecutorService executorService;
 
+    @Inject
+    private SseHeartbeat heartbeat;
+
     @PostConstruct
     public void init() {
+        this.heartbeat.setSse(sse);
         this.broadcaster = sse.newBroadcaster();
+        this.dispatcher = new BroadcastDispatcher(executorService, broadcaster::broadcast, QUEUE_CAPACITY, MAX_BATCH, DELIVERY_TIMEOUT);
         this.broadcaster.onClose(sseEventSink -> {
             try {
                 sseEventSink.close();
@@ -50,29 +70,86 @@ public class BroadcasterResource {
         });
     }
 
+    @PreDestroy
+    public void destroy() {
+        this.dispatcher.close();
+    }
+
     @POST
     @Produces(MediaType.TEXT_PLAIN)
     @Consumes(MediaType.TEXT_PLAIN)
     public Response broadcastMessage(String message) {
-        final OutboundSseEvent event = sse.newEventBuilder()
+        var result = dispatcher.submit(() -> replayBuffer.append(id -> sse.newEventBuilder()
+                .id(Long.toString(id))
                 .name("message")
                 .mediaType(MediaType.TEXT_PLAIN_TYPE)
                 .data(String.class, message)
-                .build();
+                .build()
+        ));
 
-        executorService.submit(() -> {
-                    LOGGER.log(Level.FINEST, "broadcasting message: {0}", message);
-                    broadcaster.broadcast(event);
-                }
-        );
+        return switch (result) {
+            case ACCEPTED -> {
+                LOGGER.log(Level.INFO, "Message '" + message + "' has been broadcast.");
+                yield Response.accepted().build();
+            }
+            case QUEUE_FULL -> {
+                LOGGER.log(Level.FINE, "broadcast queue is full, rejecting message");
+                yield Response.status(Response.Status.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .build();
+            }
+            case CLOSED -> Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        };
+    }
 
-        LOGGER.log(Level.INFO, "Message '" + message + "' has been broadcast.");
-        return Response.accepted().build();
+    @GET
+    @Path("stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public BroadcastStats stats() {
+        return dispatcher.stats();
     }
 
     @GET
     @Produces(MediaType.SERVER_SENT_EVENTS)
-    public void listenToBroadcast(@Context SseEventSink eventSink) {
-        this.broadcaster.register(eventSink);
+    public void listenToBroadcast(@Context SseEventSink eventSink,
+                                  @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        long lastId = parseEventId(lastEventId);
+        if (lastId < 0) {
+            this.broadcaster.register(eventSink);
+            // the broadcaster skips closed sinks, nothing else to clean up
+            this.heartbeat.register(eventSink, () -> {
+            });
+            return;
+        }
+
+        var replayingSink = new ReplayingSseEventSink(eventSink);
+        this.broadcaster.register(replayingSink);
+        this.heartbeat.register(replayingSink, () -> {
+        });
+        if (lastId > replayBuffer.lastId()) {
+            // the id comes from before a restart, there is nothing to replay or to skip.
+            replayingSink.replay(List.of(), 0);
+            return;
+        }
+        List<OutboundSseEvent> missed = replayBuffer.since(lastId);
+        if (!missed.isEmpty() && Long.parseLong(missed.getFirst().getId()) > lastId + 1) {
+            LOGGER.log(Level.FINE, "events after id {0} are not buffered anymore, replaying from {1}",
+                    new Object[]{lastId, missed.getFirst().getId()});
+        }
+        long replayedUpTo = missed.isEmpty() ? lastId : Long.parseLong(missed.getLast().getId());
+        replayingSink.replay(missed, replayedUpTo);
+    }
+
+    private static long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.broadcast;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// A lock-free latency histogram with power-of-two buckets in microseconds,
+// bucket `i` counts the latencies below 2^i micros. Percentiles are reported as bucket upper bounds.
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+        buckets[Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1)].increment();
+        max.accumulate(micros);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<Long, Long> nonEmpty = new TreeMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                nonEmpty.put(1L << i, counts[i]);
+            }
+        }
+        return new Snapshot(
+                total,
+                percentile(counts, total, 0.50),
+                percentile(counts, total, 0.90),
+                percentile(counts, total, 0.99),
+                max.get(),
+                nonEmpty
+        );
+    }
+
+    private static long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (counts.length - 1);
+    }
+
+    // `buckets` maps the upper bound in micros to the number of latencies below it.
+    public record Snapshot(long count, long p50Micros, long p90Micros, long p99Micros, long maxMicros, Map<Long, Long> buckets) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.broadcast;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Registered to the broadcaster before the missed events are read, so nothing published in between is lost.
+// Live events are held back until `replay` has sent the missed ones, the ones already replayed are skipped.
+class ReplayingSseEventSink implements SseEventSink {
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+
+    private final SseEventSink delegate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<OutboundSseEvent> held = new ArrayList<>();
+    private long replayedUpTo;
+
+    ReplayingSseEventSink(SseEventSink delegate) {
+        this.delegate = delegate;
+    }
+
+    void replay(List<OutboundSseEvent> missed, long replayedUpTo) {
+        lock.lock();
+        try {
+            this.replayedUpTo = replayedUpTo;
+            missed.forEach(delegate::send);
+            held.stream()
+                    .filter(event -> !isReplayed(event))
+                    .forEach(delegate::send);
+            held = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletionStage<?> send(OutboundSseEvent event) {
+        lock.lock();
+        try {
+            if (held != null) {
+                held.add(event);
+                return ACCEPTED;
+            }
+            if (isReplayed(event)) {
+                return ACCEPTED;
+            }
+            return delegate.send(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // events without a numeric id, e.g. errors, are never part of the replay.
+    private boolean isReplayed(OutboundSseEvent event) {
+        try {
+            return event.getId() != null && Long.parseLong(event.getId()) <= replayedUpTo;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
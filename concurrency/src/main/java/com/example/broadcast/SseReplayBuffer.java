@@ -0,0 +1,75 @@
+package com.example.broadcast;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+// A bounded ring buffer of the most recent events, keyed by a monotonically increasing id.
+// Writers claim an id with a single increment and publish the event into its slot with a CAS,
+// readers never block them, a slot which is not published yet ends the replay.
+public class SseReplayBuffer {
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReferenceArray<Entry> entries;
+
+    private record Entry(long id, OutboundSseEvent event) {
+    }
+
+    public SseReplayBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    // builds the event with the next id, and keeps it for replay.
+    public OutboundSseEvent append(LongFunction<OutboundSseEvent> eventFactory) {
+        long id = sequence.incrementAndGet();
+        var entry = new Entry(id, eventFactory.apply(id));
+        int index = index(id);
+        while (true) {
+            Entry current = entries.get(index);
+            // a slow writer must not overwrite a newer event which already wrapped around
+            if (current != null && current.id() > id) {
+                break;
+            }
+            if (entries.compareAndSet(index, current, entry)) {
+                break;
+            }
+        }
+        return entry.event();
+    }
+
+    // the buffered events newer than `lastId`, oldest first.
+    public List<OutboundSseEvent> since(long lastId) {
+        long last = sequence.get();
+        long from = Math.max(lastId + 1, last - entries.length() + 1);
+        var events = new ArrayList<OutboundSseEvent>();
+        for (long id = from; id <= last; id++) {
+            Entry entry = entries.get(index(id));
+            if (entry == null || entry.id() < id) {
+                // claimed but not published yet, it will be delivered live
+                break;
+            }
+            if (entry.id() == id) {
+                events.add(entry.event());
+            }
+        }
+        return events;
+    }
+
+    public long lastId() {
+        return sequence.get();
+    }
+
+    public int capacity() {
+        return entries.length();
+    }
+
+    private int index(long id) {
+        return (int) (id % entries.length());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.chat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Compact layout: a format byte, the sent time as epoch nanos (UTC), the body length and the UTF-8 body.
+// Values written by another codec (e.g. existing JSON entries) are handed to the fallback codec.
+public class BinaryChatMessageCodec implements ChatMessageCodec {
+    static final byte FORMAT_V1 = 0x01;
+    private static final int NULL_BODY = -1;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final ChatMessageCodec fallback;
+
+    public BinaryChatMessageCodec(ChatMessageCodec fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ByteBuffer encode(ChatMessage message) {
+        byte[] body = message.body() == null ? null : message.body().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + (body == null ? 0 : body.length));
+        buffer.put(FORMAT_V1);
+        buffer.putLong(toEpochNanos(message.sentAt()));
+        if (body == null) {
+            buffer.putInt(NULL_BODY);
+        } else {
+            buffer.putInt(body.length);
+            buffer.put(body);
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public ChatMessage decode(ByteBuffer bytes) {
+        if (!bytes.hasRemaining() || bytes.get(bytes.position()) != FORMAT_V1) {
+            return fallback.decode(bytes);
+        }
+        bytes.get();
+        LocalDateTime sentAt = fromEpochNanos(bytes.getLong());
+        int length = bytes.getInt();
+        String body = null;
+        if (length != NULL_BODY) {
+            body = StandardCharsets.UTF_8.decode(bytes.slice(bytes.position(), length)).toString();
+            bytes.position(bytes.position() + length);
+        }
+        return new ChatMessage(body, sentAt);
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + dateTime.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND),
+                ZoneOffset.UTC
+        );
+    }
+}
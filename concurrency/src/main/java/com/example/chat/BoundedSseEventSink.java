@@ -0,0 +1,368 @@
+package com.example.chat;
+
+import com.example.sse.TrackedSseEventSink;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Wraps a SseEventSink with a bounded ring buffer.
+// Only one write is in flight per sink, the next event is sent when the previous send stage completes,
+// so a slow client fills its own buffer instead of the JAX-RS runtime. A failed send evicts the sink.
+public class BoundedSseEventSink implements TrackedSseEventSink {
+    private static final Logger LOGGER = Logger.getLogger(BoundedSseEventSink.class.getName());
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+
+    private final SseEventSink delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final SseSinkMetrics metrics;
+    private final Consumer<BoundedSseEventSink> onEvict;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final OutboundSseEvent[] buffer;
+    private int head;
+    private int size;
+    private boolean writing;
+    private boolean paused;
+    private volatile boolean closed;
+    // at most one event is tracked at a time, see `sendTracked`.
+    private volatile OutboundSseEvent trackedEvent;
+    private CompletableFuture<Void> tracked;
+    // the tracked write dropped by DROP_OLDEST, failed once the lock is released.
+    private CompletableFuture<Void> droppedTracked;
+
+    public BoundedSseEventSink(SseEventSink delegate,
+                               int capacity,
+                               OverflowPolicy overflowPolicy,
+                               SseSinkMetrics metrics,
+                               Consumer<BoundedSseEventSink> onEvict) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.buffer = new OutboundSseEvent[capacity];
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+        this.onEvict = onEvict;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || delegate.isClosed();
+    }
+
+    @Override
+    public CompletionStage<?> send(OutboundSseEvent event) {
+        boolean overflow;
+        boolean startWriting;
+        CompletableFuture<Void> dropped;
+        lock.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("sink has been closed"));
+            }
+            overflow = !enqueue(event);
+            startWriting = !overflow && startWriting();
+            dropped = takeDroppedTracked();
+        } finally {
+            lock.unlock();
+        }
+        dropped(dropped);
+        if (overflow) {
+            var error = new IllegalStateException("outbound queue is full");
+            evict(error);
+            return CompletableFuture.failedFuture(error);
+        }
+        if (startWriting) {
+            drain();
+        }
+        return ACCEPTED;
+    }
+
+    // Queues the event like `send`, the returned stage completes once it has been written.
+    // Fails right away when the queue is full, and fails later if DROP_OLDEST drops it for newer events.
+    @Override
+    public CompletionStage<Void> sendTracked(OutboundSseEvent event) {
+        var written = new CompletableFuture<Void>();
+        CompletableFuture<Void> superseded;
+        boolean startWriting;
+        lock.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("sink has been closed"));
+            }
+            if (size == buffer.length) {
+                return CompletableFuture.failedFuture(new IllegalStateException("outbound queue is full"));
+            }
+            superseded = tracked;
+            trackedEvent = event;
+            tracked = written;
+            enqueue(event);
+            startWriting = startWriting();
+        } finally {
+            lock.unlock();
+        }
+        if (superseded != null) {
+            superseded.cancel(false);
+        }
+        if (startWriting) {
+            drain();
+        }
+        return written;
+    }
+
+    // Holds back the writes, events sent in the meantime are only buffered.
+    // Used to register a reconnecting client before its missed events are read, see `resume`.
+    public void pause() {
+        lock.lock();
+        try {
+            paused = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Puts the replayed events in front of the events buffered while paused, skipping the ones
+    // which have been replayed already, then starts writing again.
+    public void resume(List<OutboundSseEvent> replayed) {
+        boolean overflow = false;
+        boolean startWriting;
+        CompletableFuture<Void> dropped;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            var buffered = new ArrayList<OutboundSseEvent>(size);
+            OutboundSseEvent event;
+            while ((event = poll()) != null) {
+                buffered.add(event);
+            }
+            metrics.dequeued(buffered.size());
+
+            Set<String> replayedIds = new HashSet<>();
+            for (OutboundSseEvent replayedEvent : replayed) {
+                replayedIds.add(replayedEvent.getId());
+                overflow |= !enqueue(replayedEvent);
+            }
+            for (OutboundSseEvent bufferedEvent : buffered) {
+                if (!replayedIds.contains(bufferedEvent.getId())) {
+                    overflow |= !enqueue(bufferedEvent);
+                }
+            }
+            paused = false;
+            startWriting = !overflow && startWriting();
+            dropped = takeDroppedTracked();
+        } finally {
+            lock.unlock();
+        }
+        dropped(dropped);
+        if (overflow) {
+            evict(new IllegalStateException("outbound queue is full"));
+        } else if (startWriting) {
+            drain();
+        }
+    }
+
+    // Adds the event applying the overflow policy, returns false when a DISCONNECT queue overflows.
+    // must be called with the lock held
+    private boolean enqueue(OutboundSseEvent event) {
+        if (size == buffer.length) {
+            switch (overflowPolicy) {
+                case DROP_OLDEST -> {
+                    if (poll() == trackedEvent && trackedEvent != null) {
+                        droppedTracked = tracked;
+                        trackedEvent = null;
+                        tracked = null;
+                    }
+                    metrics.dequeued(1);
+                    metrics.dropped();
+                }
+                case DROP_NEWEST -> {
+                    metrics.dropped();
+                    return true;
+                }
+                case DISCONNECT -> {
+                    return false;
+                }
+            }
+        }
+        buffer[(head + size) % buffer.length] = event;
+        size++;
+        metrics.enqueued();
+        return true;
+    }
+
+    // must be called with the lock held
+    private CompletableFuture<Void> takeDroppedTracked() {
+        CompletableFuture<Void> dropped = droppedTracked;
+        droppedTracked = null;
+        return dropped;
+    }
+
+    // the sink stays open, the caller can track another event once the queue drains.
+    private static void dropped(CompletableFuture<Void> dropped) {
+        if (dropped != null) {
+            dropped.completeExceptionally(new IllegalStateException("dropped from a full outbound queue"));
+        }
+    }
+
+    // must be called with the lock held
+    private boolean startWriting() {
+        if (writing || paused || size == 0) {
+            return false;
+        }
+        writing = true;
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            OutboundSseEvent next;
+            lock.lock();
+            try {
+                next = poll();
+                if (next == null) {
+                    writing = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            metrics.dequeued(1);
+
+            CompletableFuture<?> stage;
+            try {
+                stage = delegate.send(next).toCompletableFuture();
+            } catch (Exception e) {
+                evict(e);
+                return;
+            }
+            // keep looping while the runtime completes writes synchronously, otherwise continue on completion.
+            if (stage.isDone() && !stage.isCompletedExceptionally()) {
+                written(next);
+                continue;
+            }
+            stage.whenComplete((r, ex) -> {
+                if (ex != null) {
+                    evict(ex);
+                } else {
+                    written(next);
+                    drain();
+                }
+            });
+            return;
+        }
+    }
+
+    private void written(OutboundSseEvent event) {
+        // cheap check first, this runs for every event
+        if (event != trackedEvent) {
+            return;
+        }
+        CompletableFuture<Void> done;
+        lock.lock();
+        try {
+            if (event != trackedEvent) {
+                return;
+            }
+            done = tracked;
+            trackedEvent = null;
+            tracked = null;
+        } finally {
+            lock.unlock();
+        }
+        done.complete(null);
+    }
+
+    // must be called with the lock held
+    private OutboundSseEvent poll() {
+        if (size == 0) {
+            return null;
+        }
+        OutboundSseEvent event = buffer[head];
+        buffer[head] = null;
+        head = (head + 1) % buffer.length;
+        size--;
+        return event;
+    }
+
+    private void evict(Throwable cause) {
+        CompletableFuture<Void> abandoned;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            abandoned = clear();
+        } finally {
+            lock.unlock();
+        }
+        fail(abandoned);
+        LOGGER.log(Level.FINE, "evicting sink: " + delegate, cause);
+        metrics.evicted();
+        closeDelegate();
+        onEvict.accept(this);
+    }
+
+    // returns the pending tracked write, to be failed once the lock is released.
+    // must be called with the lock held
+    private CompletableFuture<Void> clear() {
+        metrics.dequeued(size);
+        while (poll() != null) {
+            // discard pending events
+        }
+        CompletableFuture<Void> abandoned = tracked;
+        trackedEvent = null;
+        tracked = null;
+        return abandoned;
+    }
+
+    private static void fail(CompletableFuture<Void> abandoned) {
+        if (abandoned != null) {
+            abandoned.completeExceptionally(new IllegalStateException("sink has been closed"));
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<Void> abandoned;
+        lock.lock();
+        try {
+            closed = true;
+            abandoned = clear();
+        } finally {
+            lock.unlock();
+        }
+        fail(abandoned);
+        delegate.close();
+    }
+
+    private void closeDelegate() {
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINEST, "failed to close sink: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Relays the chat messages between the nodes of a cluster over a Redis pub/sub channel.
+// Every node publishes the messages sent to it tagged with its node id, and hands the messages published
+// by the other nodes to its local fan-out. Its own messages come back too, they are skipped as they
+// have been delivered locally already.
+public class ChatClusterBridge implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ChatClusterBridge.class.getName());
+    private static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String channel;
+    private final ChatMessageCodec codec;
+    private final Consumer<ChatRoomMessage> onRemoteMessage;
+
+    // a subscribed connection can not publish, so a second one is used for that.
+    private final StatefulRedisConnection<String, byte[]> publisher;
+    private final StatefulRedisPubSubConnection<String, byte[]> subscriber;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public ChatClusterBridge(RedisClient redisClient,
+                             ChatMessageCodec codec,
+                             String channel,
+                             Consumer<ChatRoomMessage> onRemoteMessage) {
+        this.channel = channel;
+        this.codec = codec;
+        this.onRemoteMessage = onRemoteMessage;
+        this.publisher = redisClient.connect(CODEC);
+        this.subscriber = redisClient.connectPubSub(CODEC);
+        this.subscriber.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, byte[] payload) {
+                receive(payload);
+            }
+        });
+        // wait for the subscription, messages published before it would be lost.
+        this.subscriber.sync().subscribe(channel);
+        LOGGER.log(Level.FINE, "node {0} joined the chat cluster on channel {1}", new Object[]{nodeId, channel});
+    }
+
+    public void publish(ChatRoomMessage message) {
+        publisher.async()
+                .publish(channel, encode(message))
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        LOGGER.log(Level.WARNING, "failed to publish message " + message.entry().id() + " to the cluster", e);
+                    } else {
+                        published.increment();
+                    }
+                });
+    }
+
+    private void receive(byte[] payload) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            String origin = readString(buffer);
+            if (nodeId.equals(origin)) {
+                skipped.increment();
+                return;
+            }
+            String room = readString(buffer);
+            String id = readString(buffer);
+            received.increment();
+            onRemoteMessage.accept(new ChatRoomMessage(room, new ChatHistoryEntry(id, codec.decode(buffer))));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "failed to handle a message from the cluster", e);
+        }
+    }
+
+    // the origin node id, the room and the history entry id, each prefixed by its length, then the encoded message.
+    private byte[] encode(ChatRoomMessage message) {
+        byte[] origin = nodeId.getBytes(StandardCharsets.UTF_8);
+        byte[] room = message.room().getBytes(StandardCharsets.UTF_8);
+        byte[] id = message.entry().id().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = codec.encode(message.entry().message());
+        return ByteBuffer.allocate(3 * Short.BYTES + origin.length + room.length + id.length + body.remaining())
+                .putShort((short) origin.length)
+                .put(origin)
+                .putShort((short) room.length)
+                .put(room)
+                .putShort((short) id.length)
+                .put(id)
+                .put(body)
+                .array();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long receivedCount() {
+        return received.sum();
+    }
+
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    @Override
+    public void close() {
+        subscriber.close();
+        publisher.close();
+    }
+}
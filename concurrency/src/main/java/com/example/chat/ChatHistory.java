@@ -0,0 +1,146 @@
+package com.example.chat;
+
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAddArgs;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+// The chat history kept in a Redis stream per room.
+// Appends are trimmed to about `chat.history.maxLength` entries, reads are non-destructive range queries
+// using the stream entry ids as cursors, so they cost O(limit) and can be repeated.
+@ApplicationScoped
+public class ChatHistory {
+    // the global room keeps the original key
+    static final String KEY = "chat:history";
+    static final String ROOM_KEY_FORMAT = "chat:rooms:%s:history";
+    static final String FIELD = "message";
+    static final long MAX_LENGTH = Long.getLong("chat.history.maxLength", 10_000);
+    // opt-in, batch the XADDs of concurrent sends into one network round-trip.
+    static final boolean REDIS_PIPELINING = Boolean.getBoolean("chat.redis.pipelining");
+
+    @Inject
+    RedisConnectionPools<String, ChatMessage> redisPools;
+
+    @Inject
+    Instance<RedisPipeline<String, ChatMessage>> redisPipeline;
+
+    private RedisPipeline<String, ChatMessage> pipeline;
+    private long maxLength = MAX_LENGTH;
+
+    public ChatHistory() {
+    }
+
+    ChatHistory(RedisConnectionPools<String, ChatMessage> redisPools,
+                RedisPipeline<String, ChatMessage> pipeline,
+                long maxLength) {
+        this.redisPools = redisPools;
+        this.pipeline = pipeline;
+        this.maxLength = maxLength;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (REDIS_PIPELINING) {
+            this.pipeline = redisPipeline.get();
+        }
+    }
+
+    // emits the id of the new entry
+    public Mono<String> append(String room, ChatMessage message) {
+        var args = new XAddArgs().maxlen(maxLength).approximateTrimming();
+        var body = Map.of(FIELD, message);
+        if (pipeline != null) {
+            return Mono.fromCompletionStage(() -> pipeline.execute(commands -> commands.xadd(key(room), args, body)));
+        }
+        return redisPools.reactive().xadd(key(room), args, body);
+    }
+
+    // the newest entries older than `beforeId`, newest first. A null `beforeId` starts from the latest entry.
+    public List<ChatHistoryEntry> before(String room, String beforeId, int limit) {
+        return redisPools.sync(commands -> commands.xrevrange(key(room), olderThan(beforeId), Limit.from(limit)))
+                .stream()
+                .map(ChatHistory::toEntry)
+                .toList();
+    }
+
+    public CompletionStage<List<ChatHistoryEntry>> beforeAsync(String room, String beforeId, int limit) {
+        return redisPools.async()
+                .xrevrange(key(room), olderThan(beforeId), Limit.from(limit))
+                .thenApply(messages -> messages.stream().map(ChatHistory::toEntry).toList());
+    }
+
+    public Flux<ChatHistoryEntry> beforeReactive(String room, String beforeId, int limit) {
+        return redisPools.reactive()
+                .xrevrange(key(room), olderThan(beforeId), Limit.from(limit))
+                .map(ChatHistory::toEntry);
+    }
+
+    // Streams up to `limit` entries, newest first, reading `batchSize` entries per range query.
+    // A batch is only read once the previous one has been requested downstream, so however long the history,
+    // a slow reader keeps a couple of batches in memory at most.
+    public Flux<ChatHistoryEntry> stream(String room, long limit, int batchSize) {
+        if (limit <= 0) {
+            return Flux.empty();
+        }
+        return readBatch(room, null, limit, batchSize)
+                .expand(batch -> batch.isLast() ? Mono.empty() : readBatch(room, batch.lastId(), batch.remaining(), batchSize))
+                .flatMapIterable(Batch::entries, 1);
+    }
+
+    private record Batch(List<ChatHistoryEntry> entries, int requested, long remaining) {
+        boolean isLast() {
+            return remaining == 0 || entries.size() < requested;
+        }
+
+        String lastId() {
+            return entries.getLast().id();
+        }
+    }
+
+    private Mono<Batch> readBatch(String room, String beforeId, long remaining, int batchSize) {
+        int size = (int) Math.min(batchSize, remaining);
+        return beforeReactive(room, beforeId, size)
+                .collectList()
+                .map(entries -> new Batch(entries, size, remaining - entries.size()));
+    }
+
+    // the oldest entries newer than `afterId`, oldest first, used to replay missed messages.
+    public List<ChatHistoryEntry> after(String room, String afterId, int limit) {
+        Range<String> range = Range.from(Range.Boundary.excluding(afterId), Range.Boundary.unbounded());
+        return redisPools.sync(commands -> commands.xrange(key(room), range, Limit.from(limit)))
+                .stream()
+                .map(ChatHistory::toEntry)
+                .toList();
+    }
+
+    public HistoryPage page(String room, String beforeId, int limit) {
+        var entries = before(room, beforeId, limit);
+        String next = entries.size() < limit ? null : entries.getLast().id();
+        return new HistoryPage(entries, next);
+    }
+
+    static String key(String room) {
+        return ChatRooms.GLOBAL.equals(room) ? KEY : ROOM_KEY_FORMAT.formatted(room);
+    }
+
+    private static Range<String> olderThan(String beforeId) {
+        if (beforeId == null || beforeId.isBlank()) {
+            return Range.unbounded();
+        }
+        return Range.from(Range.Boundary.unbounded(), Range.Boundary.excluding(beforeId));
+    }
+
+    private static ChatHistoryEntry toEntry(StreamMessage<String, ChatMessage> message) {
+        return new ChatHistoryEntry(message.getId(), message.getBody().get(FIELD));
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.chat;
+
+// A chat message and the id of its entry in the history stream.
+public record ChatHistoryEntry(String id, ChatMessage message) {
+}
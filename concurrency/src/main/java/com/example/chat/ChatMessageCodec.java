@@ -0,0 +1,11 @@
+package com.example.chat;
+
+import java.nio.ByteBuffer;
+
+// Converts chat messages from/to the bytes stored in Redis.
+public interface ChatMessageCodec {
+
+    ByteBuffer encode(ChatMessage message);
+
+    ChatMessage decode(ByteBuffer bytes);
+}
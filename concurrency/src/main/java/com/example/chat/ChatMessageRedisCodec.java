@@ -0,0 +1,35 @@
+package com.example.chat;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+
+import java.nio.ByteBuffer;
+
+// String keys, values converted by the configured ChatMessageCodec straight from/to Lettuce's buffers.
+public class ChatMessageRedisCodec implements RedisCodec<String, ChatMessage> {
+    private final ChatMessageCodec codec;
+
+    public ChatMessageRedisCodec(ChatMessageCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String decodeKey(ByteBuffer bytes) {
+        return StringCodec.UTF8.decodeKey(bytes);
+    }
+
+    @Override
+    public ChatMessage decodeValue(ByteBuffer bytes) {
+        return codec.decode(bytes);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(String key) {
+        return StringCodec.UTF8.encodeKey(key);
+    }
+
+    @Override
+    public ByteBuffer encodeValue(ChatMessage message) {
+        return codec.encode(message);
+    }
+}
@@ -1,22 +1,31 @@
 package com.example.chat;
 
+import com.example.vt.RunOnVirtualThread;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.sse.Sse;
 import jakarta.ws.rs.sse.SseEventSink;
 
 import java.util.UUID;
-import java.util.concurrent.Flow;
 
 @ApplicationScoped
 @Path("chat")
 public class ChatResource {
+    static final String ROOM_PATTERN = "[A-Za-z0-9_-]{1,64}";
+    static final String NDJSON = "application/x-ndjson";
 
     @Inject
     ChatService chatService;
@@ -31,28 +40,92 @@ public class ChatResource {
 
     @GET
     @Produces(MediaType.SERVER_SENT_EVENTS)
-    public void join(@Context SseEventSink sink) {
+    public void join(@Context SseEventSink sink,
+                     @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
         var userId = UUID.randomUUID();
-        chatService.register(userId, sink);
+        chatService.register(ChatRooms.GLOBAL, userId, sink, lastEventId);
     }
 
     @DELETE
     @Path("{id}")
     public void quit(@PathParam("id") UUID id) {
-        chatService.deregister(id);
+        chatService.deregister(ChatRooms.GLOBAL, id);
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     public void send(@Valid NewMessageCommand message) {
-        chatService.send(ChatMessage.of(message.body()));
+        chatService.send(ChatRooms.GLOBAL, ChatMessage.of(message.body()));
+    }
+
+    // the history is read from Redis, the blocking read runs on a virtual thread.
+    @GET
+    @Path("history")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public void history(@Suspended AsyncResponse response,
+                        @QueryParam("before") String before,
+                        @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(100) int limit) {
+        response.resume(chatService.history(ChatRooms.GLOBAL, before, limit));
+    }
+
+    // room names end up in Redis keys, keep them short and plain.
+    @GET
+    @Path("rooms/{room}")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void joinRoom(@PathParam("room") @Pattern(regexp = ROOM_PATTERN) String room,
+                         @Context SseEventSink sink,
+                         @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        var userId = UUID.randomUUID();
+        chatService.register(room, userId, sink, lastEventId);
+    }
+
+    @DELETE
+    @Path("rooms/{room}/{id}")
+    public void quitRoom(@PathParam("room") @Pattern(regexp = ROOM_PATTERN) String room,
+                         @PathParam("id") UUID id) {
+        chatService.deregister(room, id);
+    }
+
+    @POST
+    @Path("rooms/{room}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void sendToRoom(@PathParam("room") @Pattern(regexp = ROOM_PATTERN) String room,
+                           @Valid NewMessageCommand message) {
+        chatService.send(room, ChatMessage.of(message.body()));
+    }
+
+    @GET
+    @Path("rooms/{room}/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public void roomHistory(@Suspended AsyncResponse response,
+                            @PathParam("room") @Pattern(regexp = ROOM_PATTERN) String room,
+                            @QueryParam("before") String before,
+                            @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(100) int limit) {
+        response.resume(chatService.history(room, before, limit));
+    }
+
+    @GET
+    @Path("stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SinkStats stats() {
+        return chatService.sinkStats();
+    }
+
+    @GET
+    @Path("stats/requests")
+    @Produces(MediaType.APPLICATION_JSON)
+    public RequestStats requestStats() {
+        return chatService.requestStats();
     }
 
     @GET
     @Path("sync")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response latestMessages() {
-        return Response.ok(chatService.latest10Messages()).build();
+    @RunOnVirtualThread
+    public void latestMessages(@Suspended AsyncResponse response) {
+        response.resume(Response.ok(chatService.latest10Messages()).build());
     }
 
 //    @GET
@@ -72,8 +145,12 @@ public class ChatResource {
 
     @GET
     @Path("flow")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Flow.Publisher<ChatMessage> latestMessagesFlow() {
-        return chatService.latest10MessagesFlowPublisher();
+    @Produces(NDJSON)
+    // the body is written within the task, a long stream must not count as a slow request for the limiter.
+    @RunOnVirtualThread(limited = false)
+    public void latestMessagesFlow(@Suspended AsyncResponse response,
+                                   @QueryParam("limit") @DefaultValue("10") @Min(1) long limit) {
+        StreamingOutput body = output -> chatService.streamHistory(ChatRooms.GLOBAL, limit, output);
+        response.resume(Response.ok(body).build());
     }
 }
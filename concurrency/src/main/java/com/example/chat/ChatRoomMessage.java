@@ -0,0 +1,5 @@
+package com.example.chat;
+
+// fired when a message has been added to the history of a room.
+public record ChatRoomMessage(String room, ChatHistoryEntry entry) {
+}
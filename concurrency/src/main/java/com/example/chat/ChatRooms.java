@@ -0,0 +1,87 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+
+// Subscriber index per chat room.
+// Every room has its own concurrent set of sinks and its own SseFanout, so a message costs O(room size)
+// instead of O(all sinks). Empty rooms are dropped, joins and leaves are done in `compute` so a sink
+// never joins a room which is being dropped.
+public class ChatRooms {
+    public static final String GLOBAL = "global";
+
+    private final ScheduledExecutorService executor;
+    private final Duration flushWindow;
+    private final int shardSize;
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    private final class Room {
+        final Map<UUID, BoundedSseEventSink> sinks = new ConcurrentHashMap<>();
+        final SseFanout fanout = new SseFanout(executor, sinks::values, flushWindow, shardSize);
+    }
+
+    public ChatRooms(ScheduledExecutorService executor, Duration flushWindow, int shardSize) {
+        this.executor = executor;
+        this.flushWindow = flushWindow;
+        this.shardSize = shardSize;
+    }
+
+    public void join(String room, UUID id, BoundedSseEventSink sink) {
+        rooms.compute(room, (name, current) -> {
+            Room target = current == null ? new Room() : current;
+            target.sinks.put(id, sink);
+            return target;
+        });
+    }
+
+    // returns the removed sink, or null if it is not in the room.
+    public BoundedSseEventSink leave(String room, UUID id) {
+        var removed = new BoundedSseEventSink[1];
+        rooms.computeIfPresent(room, (name, current) -> {
+            removed[0] = current.sinks.remove(id);
+            return current.sinks.isEmpty() ? null : current;
+        });
+        return removed[0];
+    }
+
+    // removes the sink only if it is still the one registered with this id, used when a sink is evicted.
+    public void leave(String room, UUID id, BoundedSseEventSink sink) {
+        rooms.computeIfPresent(room, (name, current) -> {
+            current.sinks.remove(id, sink);
+            return current.sinks.isEmpty() ? null : current;
+        });
+    }
+
+    // returns false when nobody is in the room on this node.
+    public boolean publish(String room, OutboundSseEvent event) {
+        Room target = rooms.get(room);
+        if (target == null) {
+            return false;
+        }
+        target.fanout.publish(event);
+        return true;
+    }
+
+    public boolean isEmpty(String room) {
+        return !rooms.containsKey(room);
+    }
+
+    public int roomCount() {
+        return rooms.size();
+    }
+
+    public Stream<BoundedSseEventSink> sinks() {
+        return rooms.values().stream().flatMap(room -> room.sinks.values().stream());
+    }
+
+    public long deliveryCount() {
+        return rooms.values().stream().mapToLong(room -> room.fanout.deliveryCount()).sum();
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.chat;
 
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.async.RedisAsyncCommands;
-import io.lettuce.core.api.reactive.RedisReactiveCommands;
-import io.lettuce.core.api.sync.RedisCommands;
+import com.example.sse.SseHeartbeat;
+import com.example.vt.WithVirtualThread;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.concurrent.ContextService;
 import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.event.Observes;
@@ -16,28 +19,60 @@ import jakarta.ws.rs.sse.OutboundSseEvent;
 import jakarta.ws.rs.sse.Sse;
 import jakarta.ws.rs.sse.SseEventSink;
 import org.reactivestreams.FlowAdapters;
-import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Flow;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ChatService {
+    // flush window used to coalesce message bursts, and the max number of sinks written by one task.
+    static final long FANOUT_FLUSH_WINDOW_MILLIS = Long.getLong("chat.fanout.flushWindowMillis", 20);
+    static final int FANOUT_SHARD_SIZE = Integer.getInteger("chat.fanout.shardSize", 500);
+    // per subscriber outbound queue size, and what to do when a slow subscriber fills it up.
+    static final int SINK_QUEUE_CAPACITY = Integer.getInteger("chat.sink.queueCapacity", 256);
+    static final OverflowPolicy SINK_OVERFLOW_POLICY = OverflowPolicy.valueOf(
+            System.getProperty("chat.sink.overflowPolicy", OverflowPolicy.DROP_OLDEST.name())
+    );
+    // max number of missed messages sent to a client reconnecting with a Last-Event-ID.
+    static final int REPLAY_LIMIT = Integer.getInteger("chat.history.replayLimit", 100);
+    // relay the messages to the SSE clients connected to the other nodes, `-Dchat.cluster.enabled=false` to opt out.
+    static final boolean CLUSTER_ENABLED = Boolean.parseBoolean(System.getProperty("chat.cluster.enabled", "true"));
+    static final String CLUSTER_CHANNEL = System.getProperty("chat.cluster.channel", "chat:messages");
+    // number of history entries read from Redis at a time by the streaming endpoint.
+    static final int STREAM_BATCH_SIZE = Integer.getInteger("chat.flow.batchSize", 500);
+
     @Inject
     private ManagedExecutorService executor;
 
+    @Inject
+    @WithVirtualThread
+    private ManagedScheduledExecutorService fanoutExecutor;
+
     @Inject
     private ContextService contextService;
 
     @Inject
-    StatefulRedisConnection<String, String> redisConnection;
+    ChatHistory history;
+
+    @Inject
+    SseHeartbeat heartbeat;
+
+    @Inject
+    RedisClient redisClient;
+
+    @Inject
+    ChatMessageCodec chatMessageCodec;
 
     @Inject
     Jsonb jsonb;
@@ -46,23 +81,80 @@ public class ChatService {
     Logger LOG;
 
     @Inject
-    RequestCountSubscriber requestCountSubscriber;
+    RequestCounter requestCounter;
 
     @Inject
-    Event<ChatMessage> chatMessageEvent;
+    Event<ChatRoomMessage> chatMessageEvent;
 
     private Sse sse;
 
-    private final Map<UUID, SseEventSink> sinks = new ConcurrentHashMap<>();
+    private final SseSinkMetrics sinkMetrics = new SseSinkMetrics();
+
+    private ChatRooms rooms;
 
-    public void register(UUID id, SseEventSink request) {
-        LOG.log(Level.FINEST, "register request:{0}", id);
-        sinks.put(id, request);
+    private ChatClusterBridge clusterBridge;
+
+    @PostConstruct
+    public void init() {
+        this.rooms = new ChatRooms(
+                fanoutExecutor,
+                Duration.ofMillis(FANOUT_FLUSH_WINDOW_MILLIS),
+                FANOUT_SHARD_SIZE
+        );
+        if (CLUSTER_ENABLED) {
+            this.clusterBridge = new ChatClusterBridge(redisClient, chatMessageCodec, CLUSTER_CHANNEL, this::onRemoteMessage);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (clusterBridge != null) {
+            clusterBridge.close();
+        }
+    }
+
+    public void register(String room, UUID id, SseEventSink request, String lastEventId) {
+        LOG.log(Level.FINEST, "register request:{0} in room:{1}, last event id:{2}", new Object[]{id, room, lastEventId});
+        var sink = new BoundedSseEventSink(
+                request,
+                SINK_QUEUE_CAPACITY,
+                SINK_OVERFLOW_POLICY,
+                sinkMetrics,
+                evicted -> {
+                    LOG.log(Level.FINE, "evicted slow or broken sink:{0}", id);
+                    rooms.leave(room, id, evicted);
+                    heartbeat.unregister(evicted);
+                }
+        );
+        heartbeat.register(sink, () -> rooms.leave(room, id, sink));
+        if (lastEventId == null || lastEventId.isBlank()) {
+            rooms.join(room, id, sink);
+            return;
+        }
+
+        // register before reading the history, so nothing published in between is lost,
+        // the live events are held back until the missed ones have been queued.
+        sink.pause();
+        rooms.join(room, id, sink);
+        List<OutboundSseEvent> missed = List.of();
+        try {
+            missed = history.after(room, lastEventId, REPLAY_LIMIT)
+                    .stream()
+                    .map(this::toOutboundSseEvent)
+                    .toList();
+        } catch (RedisException e) {
+            LOG.log(Level.FINE, "can not replay messages after id: " + lastEventId, e);
+        }
+        sink.resume(missed);
     }
 
-    public void deregister(UUID uuid) {
-        LOG.log(Level.FINEST, "deregister request:{0}", uuid);
-        SseEventSink eventSink = sinks.remove(uuid);
+    public void deregister(String room, UUID uuid) {
+        LOG.log(Level.FINEST, "deregister request:{0} from room:{1}", new Object[]{uuid, room});
+        SseEventSink eventSink = rooms.leave(room, uuid);
+        if (eventSink == null) {
+            return;
+        }
+        heartbeat.unregister(eventSink);
         try {
             eventSink.close();
             LOG.log(Level.FINEST, "closing sink: {0}", eventSink);
@@ -73,69 +165,108 @@ public class ChatService {
         }
     }
 
-    public void send(ChatMessage message) {
-        RedisReactiveCommands<String, String> commands = redisConnection.reactive();
-        commands.lpush("chat", jsonb.toJson(message))
+    public void send(String room, ChatMessage message) {
+        history.append(room, message)
                 .doOnSuccess(
-                        inserted -> {
-                            LOG.log(Level.FINEST, "inserted items into redis:" + inserted);
-                            chatMessageEvent.fire(message);
+                        id -> {
+                            LOG.log(Level.FINEST, "inserted message into redis:" + id);
+                            chatMessageEvent.fire(new ChatRoomMessage(room, new ChatHistoryEntry(id, message)));
                         }
                 )
                 .subscribe(
+                        // every stream gets its own subscriber, the counts are summed up by the counter.
                         FlowAdapters.toSubscriber(
-                                contextService.contextualSubscriber(requestCountSubscriber)
+                                contextService.contextualSubscriber(requestCounter.newSubscriber())
                         )
                 );
     }
 
-    public void onMessage(@Observes ChatMessage msg) {
-        sinks.values()
-                .forEach(sink -> {
-                            OutboundSseEvent outboundSseEvent = this.sse.newEventBuilder()
-                                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
-                                    .id(UUID.randomUUID().toString())
-                                    .name("message from cdi")
-                                    .data(msg)
-                                    .build();
-                            sink.send(outboundSseEvent);
-                        }
-                );
+    public void onMessage(@Observes ChatRoomMessage message) {
+        // serialize once, the same event instance is shared by all sinks of the room.
+        if (!rooms.isEmpty(message.room())) {
+            rooms.publish(message.room(), toOutboundSseEvent(message.entry()));
+        }
+        if (clusterBridge != null) {
+            clusterBridge.publish(message);
+        }
     }
 
-    public List<ChatMessage> latest10Messages() {
-        RedisCommands<String, String> commands = redisConnection.sync();
+    // messages sent to the other nodes only go to the local sinks, they are not fired as CDI events again.
+    private void onRemoteMessage(ChatRoomMessage message) {
+        if (sse == null || rooms.isEmpty(message.room())) {
+            return;
+        }
+        rooms.publish(message.room(), toOutboundSseEvent(message.entry()));
+    }
+
+    // the history entry id is used as event id, so a reconnecting client can resume from its Last-Event-ID.
+    private OutboundSseEvent toOutboundSseEvent(ChatHistoryEntry entry) {
+        return this.sse.newEventBuilder()
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .id(entry.id())
+                .name("message from cdi")
+                .data(String.class, jsonb.toJson(entry.message()))
+                .build();
+    }
+
+    public SinkStats sinkStats() {
+        var subscribers = rooms.sinks()
+                .mapToInt(BoundedSseEventSink::queueDepth)
+                .summaryStatistics();
+        return new SinkStats(
+                rooms.roomCount(),
+                (int) subscribers.getCount(),
+                sinkMetrics.queuedEvents(),
+                Math.max(subscribers.getMax(), 0),
+                sinkMetrics.droppedEvents(),
+                sinkMetrics.evictions(),
+                heartbeat.stats()
+        );
+    }
+
+    public RequestStats requestStats() {
+        return requestCounter.stats();
+    }
 
-        return commands.lpop("chat", 10)
+    public List<ChatMessage> latest10Messages() {
+        return history.before(ChatRooms.GLOBAL, null, 10)
                 .stream()
-                .map(it -> jsonb.fromJson(it, ChatMessage.class))
+                .map(ChatHistoryEntry::message)
                 .toList();
     }
 
     public CompletableFuture<List<ChatMessage>> latest10MessagesFuture() {
-        RedisAsyncCommands<String, String> commands = redisConnection.async();
-
-        return commands.lpop("chat", 10)
+        return history.beforeAsync(ChatRooms.GLOBAL, null, 10)
                 .thenApplyAsync(
-                        msg -> msg.stream()
-                                .map(it -> jsonb.fromJson(it, ChatMessage.class))
+                        entries -> entries.stream()
+                                .map(ChatHistoryEntry::message)
                                 .toList(),
                         executor
                 )
                 .toCompletableFuture();
     }
 
-    public Flow.Publisher<ChatMessage> latest10MessagesFlowPublisher() {
-        RedisReactiveCommands<String, String> commands = redisConnection.reactive();
-
-        Flux<ChatMessage> messageFlux = commands.lpop("chat", 10)
-                .map(it -> jsonb.fromJson(it, ChatMessage.class))
-                .subscribeOn(Schedulers.fromExecutor(executor));
+    // Writes up to `limit` messages of the room as newline delimited JSON, newest first.
+    // The entries are pulled as they are written, a slow client slows down the Redis reads instead of
+    // filling the memory. Closing the stream cancels the reads when the client goes away.
+    public void streamHistory(String room, long limit, OutputStream output) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (Stream<ChatHistoryEntry> entries = history.stream(room, limit, STREAM_BATCH_SIZE).toStream(STREAM_BATCH_SIZE)) {
+            Iterator<ChatHistoryEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                writer.write(jsonb.toJson(iterator.next().message()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
 
-        return FlowAdapters.toFlowPublisher(messageFlux);
+    public HistoryPage history(String room, String before, int limit) {
+        return history.page(room, before, limit);
     }
 
     public void setSse(Sse sse) {
         this.sse = sse;
+        this.heartbeat.setSse(sse);
     }
 }
@@ -0,0 +1,7 @@
+package com.example.chat;
+
+import java.util.List;
+
+// `next` is the cursor for the following (older) page, null when there are no more entries.
+public record HistoryPage(List<ChatHistoryEntry> entries, String next) {
+}
@@ -0,0 +1,24 @@
+package com.example.chat;
+
+import jakarta.json.bind.Jsonb;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonChatMessageCodec implements ChatMessageCodec {
+    private final Jsonb jsonb;
+
+    public JsonChatMessageCodec(Jsonb jsonb) {
+        this.jsonb = jsonb;
+    }
+
+    @Override
+    public ByteBuffer encode(ChatMessage message) {
+        return ByteBuffer.wrap(jsonb.toJson(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public ChatMessage decode(ByteBuffer bytes) {
+        return jsonb.fromJson(StandardCharsets.UTF_8.decode(bytes).toString(), ChatMessage.class);
+    }
+}
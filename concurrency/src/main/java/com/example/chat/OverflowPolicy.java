@@ -0,0 +1,6 @@
+package com.example.chat;
+
+// What to do when a subscriber's outbound queue is full.
+public enum OverflowPolicy {
+    DROP_OLDEST, DROP_NEWEST, DISCONNECT;
+}
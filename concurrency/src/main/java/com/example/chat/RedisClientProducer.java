@@ -1,11 +1,15 @@
 package com.example.chat;
 
+import com.example.vt.WithVirtualThread;
 import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import jakarta.json.bind.Jsonb;
 
+import java.time.Duration;
 import java.util.logging.Logger;
 
 @ApplicationScoped
@@ -16,7 +20,7 @@ public class RedisClientProducer {
     @Produces
     @ApplicationScoped
     public RedisClient createRedisClient() {
-        return RedisClient.create("redis://localhost:6379");
+        return RedisClient.create(System.getProperty("redis.uri", "redis://localhost:6379"));
     }
 
     // Disposer method to close the RedisClient
@@ -25,14 +29,46 @@ public class RedisClientProducer {
         redisClient.shutdown();
     }
 
+    // binary by default, `-Dchat.codec=json` stores the messages as JSON documents.
     @Produces
     @ApplicationScoped
-    public StatefulRedisConnection<String, String> redisConnection(RedisClient redisClient) {
-        return redisClient.connect();
+    public ChatMessageCodec chatMessageCodec(Jsonb jsonb) {
+        var json = new JsonChatMessageCodec(jsonb);
+        return "json".equalsIgnoreCase(System.getProperty("chat.codec", "binary"))
+                ? json
+                : new BinaryChatMessageCodec(json);
     }
 
-    public void closeConnection(@Disposes StatefulRedisConnection<String, String> redisConnection) {
-        LOGGER.finest("closing redis connection...");
-        redisConnection.close();
+    // the pools and the pipeline are not proxyable, use the Singleton pseudo-scope instead.
+    @Produces
+    @Singleton
+    public RedisConnectionPools<String, ChatMessage> redisConnectionPools(RedisClient redisClient, ChatMessageCodec codec) {
+        return new RedisConnectionPools<>(
+                redisClient,
+                new ChatMessageRedisCodec(codec),
+                RedisConnectionPools.Config.fromSystemProperties()
+        );
+    }
+
+    public void closeConnectionPools(@Disposes RedisConnectionPools<String, ChatMessage> pools) {
+        pools.close();
+    }
+
+    @Produces
+    @Singleton
+    public RedisPipeline<String, ChatMessage> redisPipeline(RedisClient redisClient,
+                                                            ChatMessageCodec codec,
+                                                            @WithVirtualThread ManagedScheduledExecutorService executor) {
+        return new RedisPipeline<>(
+                redisClient,
+                new ChatMessageRedisCodec(codec),
+                executor,
+                Duration.ofNanos(Long.getLong("redis.pipeline.flushDelayMicros", 200) * 1_000)
+        );
+    }
+
+    public void closePipeline(@Disposes RedisPipeline<String, ChatMessage> pipeline) {
+        LOGGER.finest("closing redis pipeline...");
+        pipeline.close();
     }
 }
@@ -0,0 +1,108 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.RedisCodec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Separate connections for blocking and non-blocking callers,
+// so sync calls never queue up behind the reactive/async traffic on the same connection.
+// Blocking callers check out a connection exclusively, non-blocking callers are spread
+// round-robin over a few multiplexed connections.
+public class RedisConnectionPools<K, V> implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RedisConnectionPools.class.getName());
+
+    private final BlockingQueue<StatefulRedisConnection<K, V>> blocking;
+    private final List<StatefulRedisConnection<K, V>> nonBlocking;
+    private final List<StatefulRedisConnection<K, V>> all = new ArrayList<>();
+    private final Duration borrowTimeout;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public RedisConnectionPools(RedisClient redisClient, RedisCodec<K, V> codec, Config config) {
+        this.blocking = new ArrayBlockingQueue<>(config.blockingSize());
+        for (int i = 0; i < config.blockingSize(); i++) {
+            var connection = redisClient.connect(codec);
+            all.add(connection);
+            blocking.add(connection);
+        }
+        var nonBlockingConnections = new ArrayList<StatefulRedisConnection<K, V>>();
+        for (int i = 0; i < config.nonBlockingSize(); i++) {
+            var connection = redisClient.connect(codec);
+            all.add(connection);
+            nonBlockingConnections.add(connection);
+        }
+        this.nonBlocking = List.copyOf(nonBlockingConnections);
+        this.borrowTimeout = config.borrowTimeout();
+        LOGGER.log(Level.FINEST, "created redis pools: {0}", config);
+    }
+
+    public <T> T sync(Function<RedisCommands<K, V>, T> function) {
+        StatefulRedisConnection<K, V> connection;
+        try {
+            connection = blocking.poll(borrowTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisException("interrupted while waiting for a redis connection", e);
+        }
+        if (connection == null) {
+            throw new RedisException("no redis connection available within " + borrowTimeout);
+        }
+        try {
+            return function.apply(connection.sync());
+        } finally {
+            blocking.offer(connection);
+        }
+    }
+
+    public RedisAsyncCommands<K, V> async() {
+        return nextNonBlocking().async();
+    }
+
+    public RedisReactiveCommands<K, V> reactive() {
+        return nextNonBlocking().reactive();
+    }
+
+    private StatefulRedisConnection<K, V> nextNonBlocking() {
+        return nonBlocking.get(Math.floorMod(next.getAndIncrement(), nonBlocking.size()));
+    }
+
+    public int availableBlocking() {
+        return blocking.size();
+    }
+
+    @Override
+    public void close() {
+        LOGGER.finest("closing redis pools...");
+        all.forEach(StatefulRedisConnection::close);
+    }
+
+    public record Config(int blockingSize, Duration borrowTimeout, int nonBlockingSize) {
+        public Config {
+            if (blockingSize < 1 || nonBlockingSize < 1) {
+                throw new IllegalArgumentException("pool sizes must be positive");
+            }
+        }
+
+        public static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("redis.pool.blocking.size", 8),
+                    Duration.ofMillis(Long.getLong("redis.pool.blocking.borrowTimeoutMillis", 2_000)),
+                    Integer.getInteger("redis.pool.nonBlocking.size", 2)
+            );
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// A dedicated connection with auto flush disabled.
+// Commands issued by concurrent callers are buffered and written by a single flush,
+// so a burst of writes costs one network round-trip instead of one per command.
+public class RedisPipeline<K, V> implements AutoCloseable {
+    private final StatefulRedisConnection<K, V> connection;
+    private final RedisAsyncCommands<K, V> commands;
+    private final ScheduledExecutorService executor;
+    private final Duration flushDelay;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final LongAdder flushes = new LongAdder();
+
+    public RedisPipeline(RedisClient redisClient,
+                         RedisCodec<K, V> codec,
+                         ScheduledExecutorService executor,
+                         Duration flushDelay) {
+        this.connection = redisClient.connect(codec);
+        this.connection.setAutoFlushCommands(false);
+        this.commands = connection.async();
+        this.executor = executor;
+        this.flushDelay = flushDelay;
+    }
+
+    // the command is buffered, it is written to the network by the next flush.
+    public <T> CompletionStage<T> execute(Function<RedisAsyncCommands<K, V>, RedisFuture<T>> command) {
+        var result = command.apply(commands);
+        scheduleFlush();
+        return result;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (flushDelay.isZero()) {
+                executor.execute(this::flush);
+            } else {
+                executor.schedule(this::flush, flushDelay.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    void flush() {
+        // reset before flushing, commands buffered afterwards schedule the next flush.
+        flushScheduled.set(false);
+        connection.flushCommands();
+        flushes.increment();
+    }
+
+    public long flushCount() {
+        return flushes.sum();
+    }
+
+    @Override
+    public void close() {
+        connection.flushCommands();
+        connection.close();
+    }
+}
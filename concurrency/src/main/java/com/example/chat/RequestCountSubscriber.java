@@ -1,44 +1,76 @@
 package com.example.chat;
 
-import jakarta.enterprise.context.ApplicationScoped;
-
+import java.util.Objects;
 import java.util.concurrent.Flow;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-@ApplicationScoped
-public class RequestCountSubscriber implements Flow.Subscriber<Long> {
-    private Logger LOGGER = Logger.getLogger(RequestCountSubscriber.class.getName());
+// Counts the items of a single stream, requesting MAX_REQUESTS items at a time once the previous batch has
+// been received. The signals of a stream are serial, so the per-stream fields need no synchronization,
+// the totals across all streams are kept by the shared RequestCounter. Create one per stream, see `RequestCounter.newSubscriber`.
+public class RequestCountSubscriber implements Flow.Subscriber<Object> {
+    private static final Logger LOGGER = Logger.getLogger(RequestCountSubscriber.class.getName());
     final public static int MAX_REQUESTS = 2;
 
-    Flow.Subscription subscription;
-    int requestCount = 0;
+    private final RequestCounter counter;
+    private Flow.Subscription subscription;
+    // requested and not received yet
+    private long outstanding;
+    private long received;
+    private boolean done;
+
+    RequestCountSubscriber(RequestCounter counter) {
+        this.counter = counter;
+    }
 
     @Override
     public void onSubscribe(Flow.Subscription subscription) {
-        LOGGER.info("onSubscribe:" + subscription);
+        Objects.requireNonNull(subscription, "subscription");
+        if (this.subscription != null) {
+            // already subscribed, a subscriber must not be shared by streams
+            subscription.cancel();
+            return;
+        }
+        LOGGER.log(Level.FINEST, "onSubscribe: {0}", subscription);
         this.subscription = subscription;
-        this.subscription.request(1);
-        this.requestCount++;
+        counter.subscribed();
+        request(MAX_REQUESTS);
     }
 
     @Override
-    public void onNext(Long item) {
-        LOGGER.info("onNext:" + item);
-        if (requestCount % MAX_REQUESTS == 0) {
-            this.subscription.request(MAX_REQUESTS);
+    public void onNext(Object item) {
+        Objects.requireNonNull(item, "item");
+        LOGGER.log(Level.FINEST, "onNext: {0}", item);
+        received++;
+        counter.received();
+        if (--outstanding == 0) {
+            request(MAX_REQUESTS);
         }
-        requestCount++;
     }
 
     @Override
     public void onError(Throwable throwable) {
-        LOGGER.info("onError:" + throwable.getMessage());
-        this.subscription.cancel();
+        if (done) {
+            return;
+        }
+        done = true;
+        LOGGER.log(Level.FINE, "onError: {0}", throwable.getMessage());
+        counter.failed();
     }
 
     @Override
     public void onComplete() {
-        LOGGER.log(Level.INFO, "onComplete: request count:{0}", new Object[]{this.requestCount});
+        if (done) {
+            return;
+        }
+        done = true;
+        LOGGER.log(Level.FINEST, "onComplete: received count: {0}", received);
+        counter.completed();
+    }
+
+    private void request(long n) {
+        outstanding += n;
+        counter.requested(n);
+        subscription.request(n);
     }
 }
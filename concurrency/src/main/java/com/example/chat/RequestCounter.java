@@ -0,0 +1,54 @@
+package com.example.chat;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+// Creates a RequestCountSubscriber per stream and sums up their counts, the streams run concurrently.
+@ApplicationScoped
+public class RequestCounter {
+    private final LongAdder subscriptions = new LongAdder();
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public Flow.Subscriber<Object> newSubscriber() {
+        return new RequestCountSubscriber(this);
+    }
+
+    void subscribed() {
+        subscriptions.increment();
+    }
+
+    void requested(long n) {
+        requested.add(n);
+    }
+
+    void received() {
+        received.increment();
+    }
+
+    void completed() {
+        completed.increment();
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    public RequestStats stats() {
+        long completedCount = completed.sum();
+        long failedCount = failed.sum();
+        long subscriptionCount = subscriptions.sum();
+        return new RequestStats(
+                subscriptionCount,
+                Math.max(subscriptionCount - completedCount - failedCount, 0),
+                requested.sum(),
+                received.sum(),
+                completedCount,
+                failedCount
+        );
+    }
+}
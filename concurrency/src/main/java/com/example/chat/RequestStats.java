@@ -0,0 +1,11 @@
+package com.example.chat;
+
+public record RequestStats(
+        long subscriptions,
+        long activeSubscriptions,
+        long requested,
+        long received,
+        long completed,
+        long failed
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.chat;
+
+import com.example.sse.HeartbeatStats;
+
+public record SinkStats(
+        int rooms,
+        int subscribers,
+        long queuedEvents,
+        int maxQueueDepth,
+        long droppedEvents,
+        long evictions,
+        HeartbeatStats heartbeat
+) {
+}
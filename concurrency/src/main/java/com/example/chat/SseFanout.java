@@ -0,0 +1,140 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Fans pre-encoded events out to all sinks.
+// Events published within one flush window are coalesced into a single dispatch per sink,
+// and the sinks are split into shards which are written in parallel on the given executor.
+public class SseFanout {
+    private static final Logger LOGGER = Logger.getLogger(SseFanout.class.getName());
+
+    private final ScheduledExecutorService executor;
+    private final Supplier<? extends Collection<? extends SseEventSink>> sinks;
+    private final Duration flushWindow;
+    private final int shardSize;
+
+    private final Queue<OutboundSseEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder deliveries = new LongAdder();
+
+    public SseFanout(ScheduledExecutorService executor,
+                     Supplier<? extends Collection<? extends SseEventSink>> sinks,
+                     Duration flushWindow,
+                     int shardSize) {
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("shardSize must be positive: " + shardSize);
+        }
+        this.executor = executor;
+        this.sinks = sinks;
+        this.flushWindow = flushWindow;
+        this.shardSize = shardSize;
+    }
+
+    public void publish(OutboundSseEvent event) {
+        pending.offer(event);
+        if (flushScheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (flushWindow.isZero()) {
+            executor.execute(this::flush);
+        } else {
+            executor.schedule(this::flush, flushWindow.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // one flush at a time, the flag stays set until every shard of the batch has been written,
+    // so a sink receives the events of a batch before the ones of the next batch.
+    void flush() {
+        List<OutboundSseEvent> batch = new ArrayList<>();
+        OutboundSseEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            flushed();
+            return;
+        }
+        flushes.increment();
+
+        SseEventSink[] targets = sinks.get().toArray(SseEventSink[]::new);
+        LOGGER.log(Level.FINEST, "flushing {0} events to {1} sinks", new Object[]{batch.size(), targets.length});
+        int shards = (targets.length + shardSize - 1) / shardSize;
+        if (shards == 0) {
+            flushed();
+            return;
+        }
+        var remaining = new AtomicInteger(shards);
+        for (int from = 0; from < targets.length; from += shardSize) {
+            int start = from;
+            int end = Math.min(from + shardSize, targets.length);
+            executor.execute(() -> {
+                try {
+                    dispatch(targets, start, end, batch);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        flushed();
+                    }
+                }
+            });
+        }
+    }
+
+    // events published during the flush are flushed next, otherwise the next publish schedules the flush.
+    private void flushed() {
+        if (!pending.isEmpty()) {
+            schedule();
+            return;
+        }
+        flushScheduled.set(false);
+        // an event published after the check above found the flag still set
+        if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    private void dispatch(SseEventSink[] targets, int start, int end, List<OutboundSseEvent> batch) {
+        for (int i = start; i < end; i++) {
+            SseEventSink sink = targets[i];
+            if (sink.isClosed()) {
+                continue;
+            }
+            try {
+                for (OutboundSseEvent event : batch) {
+                    sink.send(event);
+                }
+                deliveries.add(batch.size());
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "failed to send events to sink: " + sink, e);
+            }
+        }
+    }
+
+    public long flushCount() {
+        return flushes.sum();
+    }
+
+    public long deliveryCount() {
+        return deliveries.sum();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.chat;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by all BoundedSseEventSinks of a service.
+public class SseSinkMetrics {
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void enqueued() {
+        queued.increment();
+    }
+
+    void dequeued(int count) {
+        queued.add(-count);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    public long queuedEvents() {
+        return queued.sum();
+    }
+
+    public long droppedEvents() {
+        return dropped.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.schedule;
+
+import java.time.Duration;
+
+public record DispatchReport(int recipients, long sent, long failed, long timedOut, Duration elapsed) {
+}
@@ -0,0 +1,90 @@
+package com.example.schedule;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Leases kept as rows of the SCHEDULER_LOCK table, the row update is atomic so a single node wins.
+// The first acquisition of a job inserts its row, a concurrent insert fails on the primary key.
+public class JdbcLeaseStore implements LeaseStore {
+    private static final Logger LOGGER = Logger.getLogger(JdbcLeaseStore.class.getName());
+
+    static final String CREATE_TABLE = "CREATE TABLE SCHEDULER_LOCK ("
+            + "NAME VARCHAR(64) NOT NULL PRIMARY KEY, "
+            + "LOCKED_UNTIL TIMESTAMP NOT NULL, "
+            + "LOCKED_BY VARCHAR(255) NOT NULL)";
+    static final String UPDATE = "UPDATE SCHEDULER_LOCK SET LOCKED_UNTIL = ?, LOCKED_BY = ? "
+            + "WHERE NAME = ? AND LOCKED_UNTIL <= ?";
+    static final String INSERT = "INSERT INTO SCHEDULER_LOCK (NAME, LOCKED_UNTIL, LOCKED_BY) VALUES (?, ?, ?)";
+    static final String RELEASE = "UPDATE SCHEDULER_LOCK SET LOCKED_UNTIL = ? "
+            + "WHERE NAME = ? AND LOCKED_BY = ? AND LOCKED_UNTIL > ?";
+
+    private final DataSource dataSource;
+
+    public JdbcLeaseStore(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // the table is created on first use, an existing table is kept as it is.
+    public JdbcLeaseStore createTable() {
+        try (Connection connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            statement.executeUpdate(CREATE_TABLE);
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "not creating SCHEDULER_LOCK table: {0}", e.getMessage());
+        }
+        return this;
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, Instant now, Instant lockedUntil) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (var update = connection.prepareStatement(UPDATE)) {
+                update.setTimestamp(1, Timestamp.from(lockedUntil));
+                update.setString(2, owner);
+                update.setString(3, name);
+                update.setTimestamp(4, Timestamp.from(now));
+                if (update.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+            try (var insert = connection.prepareStatement(INSERT)) {
+                insert.setString(1, name);
+                insert.setTimestamp(2, Timestamp.from(lockedUntil));
+                insert.setString(3, owner);
+                return insert.executeUpdate() == 1;
+            } catch (SQLException e) {
+                // the row exists and the lease is held by another node
+                if (isConstraintViolation(e)) {
+                    return false;
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("can not acquire lease: " + name, e);
+        }
+    }
+
+    @Override
+    public void release(String name, String owner, Instant now, Instant lockedUntil) {
+        try (Connection connection = dataSource.getConnection();
+             var release = connection.prepareStatement(RELEASE)) {
+            release.setTimestamp(1, Timestamp.from(lockedUntil));
+            release.setString(2, name);
+            release.setString(3, owner);
+            release.setTimestamp(4, Timestamp.from(now));
+            release.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("can not release lease: " + name, e);
+        }
+    }
+
+    // SQL state class 23 is integrity constraint violation
+    private static boolean isConstraintViolation(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+}
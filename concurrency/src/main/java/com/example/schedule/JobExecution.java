@@ -0,0 +1,24 @@
+package com.example.schedule;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// A run of a scheduled job, or a firing which has not been run, see `Outcome`.
+public record JobExecution(
+        Instant start,
+        Instant end,
+        Duration duration,
+        Outcome outcome,
+        String error
+) {
+    public enum Outcome {
+        SUCCEEDED,
+        FAILED,
+        // the job has not been run here, another node holds its lease
+        LEASE_HELD,
+        // the firing has been dropped by the misfire policy
+        SKIPPED,
+        // the firing will be run once the current run ends
+        COALESCED
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.schedule;
+
+import java.util.List;
+
+public record JobStatus(
+        String name,
+        MisfirePolicy policy,
+        boolean running,
+        long runs,
+        long misfires,
+        List<JobExecution> history
+) {
+}
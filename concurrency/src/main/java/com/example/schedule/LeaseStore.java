@@ -0,0 +1,13 @@
+package com.example.schedule;
+
+import java.time.Instant;
+
+// Shared storage of the scheduler leases, one lease per job name.
+public interface LeaseStore {
+
+    // takes the lease when it is free or expired at `now`, returns false when another node holds it.
+    boolean tryAcquire(String name, String owner, Instant now, Instant lockedUntil);
+
+    // keeps the lease until `lockedUntil` (possibly `now`), only when it is still held by `owner`.
+    void release(String name, String owner, Instant now, Instant lockedUntil);
+}
@@ -0,0 +1,11 @@
+package com.example.schedule;
+
+// What to do with a trigger firing while the previous run of the job is still going on.
+public enum MisfirePolicy {
+    // drop the firing
+    SKIP_IF_RUNNING,
+    // remember it, all the firings missed during a run are collapsed into a single run started right after it
+    COALESCE,
+    // drop the firing, and the ones coming less than the fixed delay after the end of the previous run
+    FIXED_DELAY
+}
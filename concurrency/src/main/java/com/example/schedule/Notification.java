@@ -0,0 +1,7 @@
+package com.example.schedule;
+
+import java.time.Instant;
+
+// `sequence` is assigned by the ledger, it is also the cursor used to page through the notifications.
+public record Notification(long sequence, String name, String email, Instant sentAt) {
+}
@@ -0,0 +1,94 @@
+package com.example.schedule;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Sends a notification to every recipient, one virtual thread per send, and returns once all of them are done.
+// At most `maxInFlight` sends run at a time, the dispatching thread waits for a permit instead of queueing tasks.
+// Each send has its own timeout, a slow recipient is cancelled, so interrupted, without holding up the others.
+// A send which ignores the interrupt is left behind, dispatch does not wait for it.
+public class NotificationDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(NotificationDispatcher.class.getName());
+
+    private final ThreadFactory threadFactory;
+    private final int maxInFlight;
+    private final Duration timeout;
+
+    public NotificationDispatcher(ThreadFactory threadFactory, int maxInFlight, Duration timeout) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.threadFactory = threadFactory;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    public DispatchReport dispatch(Map<String, String> recipients, BiConsumer<String, String> send) {
+        long start = System.nanoTime();
+        var permits = new Semaphore(maxInFlight);
+        var sent = new LongAdder();
+        var failed = new LongAdder();
+        var timedOut = new LongAdder();
+        Set<FutureTask<Void>> inFlight = ConcurrentHashMap.newKeySet();
+        // the shared delayer of CompletableFuture.orTimeout, the cancel itself is cheap enough to run on it
+        Executor afterTimeout = CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS, Runnable::run);
+        try {
+            for (var recipient : recipients.entrySet()) {
+                permits.acquire();
+                var sending = new FutureTask<Void>(() -> send.accept(recipient.getKey(), recipient.getValue()), null) {
+                    // runs on the sending thread once the send returns, or on the canceling thread
+                    @Override
+                    protected void done() {
+                        try {
+                            if (isCancelled()) {
+                                timedOut.increment();
+                                LOGGER.log(Level.FINE, "sending to {0} timed out after {1}", new Object[]{recipient.getKey(), timeout});
+                            } else {
+                                get();
+                                sent.increment();
+                            }
+                        } catch (ExecutionException e) {
+                            failed.increment();
+                            LOGGER.log(Level.FINE, "failed to send to " + recipient.getKey(), e.getCause());
+                        } catch (InterruptedException e) {
+                            // not thrown, the task is done
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            inFlight.remove(this);
+                            permits.release();
+                        }
+                    }
+                };
+                inFlight.add(sending);
+                threadFactory.newThread(sending).start();
+                afterTimeout.execute(() -> sending.cancel(true));
+            }
+            // every send gives its permit back when it is done
+            permits.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            inFlight.forEach(sending -> sending.cancel(true));
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, "dispatch has been interrupted");
+        }
+        return new DispatchReport(
+                recipients.size(),
+                sent.sum(),
+                failed.sum(),
+                timedOut.sum(),
+                Duration.ofNanos(System.nanoTime() - start)
+        );
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.schedule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// An append-only ledger of the sent notifications, with write-behind persistence to a local file.
+// Appends only touch lock-free structures: a sequence counter, a skip list index used to page through
+// the notifications by sequence, and the queue of entries not written yet. `flush` writes the pending
+// entries in one batch, one tab separated line each, and forces them to disk, the entries only leave the
+// queue once they are on disk. The index keeps the latest `maxIndexed` notifications, it is rebuilt from
+// the file on startup after cutting a line left half written by a crash. The file is rewritten with the
+// indexed entries only when it has grown past twice that size.
+public class NotificationLedger implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(NotificationLedger.class.getName());
+
+    static final int DEFAULT_MAX_INDEXED = 100_000;
+
+    private final Path file;
+    private final int maxIndexed;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    // the size of the file up to the last forced batch, a failed flush cuts the file back to it.
+    private long flushedSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final NavigableMap<Long, Notification> index = new ConcurrentSkipListMap<>();
+    // the size of a skip list is not a constant time operation
+    private final AtomicInteger indexed = new AtomicInteger();
+    private final Queue<Notification> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private NotificationLedger(Path file, int maxIndexed) throws IOException {
+        this.file = file;
+        this.maxIndexed = maxIndexed;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        openChannel();
+        truncateIncompleteEntry();
+        long lines = load();
+        if (lines > 2L * maxIndexed) {
+            compact();
+        }
+        this.writer = newWriter();
+    }
+
+    public static NotificationLedger open(Path file) {
+        return open(file, DEFAULT_MAX_INDEXED);
+    }
+
+    public static NotificationLedger open(Path file, int maxIndexed) {
+        try {
+            return new NotificationLedger(file, maxIndexed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("can not open notification ledger: " + file, e);
+        }
+    }
+
+    private void openChannel() throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private BufferedWriter newWriter() {
+        return new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    // returns the number of lines of the file
+    private long load() throws IOException {
+        long count = 0;
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            for (var iterator = lines.iterator(); iterator.hasNext(); ) {
+                String line = iterator.next();
+                count++;
+                var notification = parse(line);
+                if (notification == null) {
+                    LOGGER.log(Level.WARNING, "skipping invalid ledger entry: {0}", line);
+                    continue;
+                }
+                sequence.accumulateAndGet(notification.sequence(), Math::max);
+                index(notification);
+            }
+        }
+        LOGGER.log(Level.FINE, "loaded {0} notifications from {1}", new Object[]{indexed.get(), file});
+        return count;
+    }
+
+    private static Notification parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            return new Notification(Long.parseLong(fields[0]), fields[2], fields[3], Instant.parse(fields[1]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void index(Notification notification) {
+        if (index.put(notification.sequence(), notification) == null && indexed.incrementAndGet() > maxIndexed) {
+            if (index.pollFirstEntry() != null) {
+                indexed.decrementAndGet();
+            }
+        }
+    }
+
+    // rewrites the file with the indexed entries, the replacement is moved over the file once complete.
+    private void compact() throws IOException {
+        var compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (var out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Notification notification : index.values()) {
+                out.write(format(notification));
+            }
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openChannel();
+        flushedSize = channel.size();
+        channel.position(flushedSize);
+        LOGGER.log(Level.INFO, "compacted notification ledger {0} to {1} entries", new Object[]{file, indexed.get()});
+    }
+
+    // cuts a line left half written by a crash, the next entries would be appended to it otherwise.
+    private void truncateIncompleteEntry() throws IOException {
+        long end = channel.size();
+        var single = ByteBuffer.allocate(1);
+        while (end > 0) {
+            single.clear();
+            channel.read(single, end - 1);
+            if (single.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+        if (end < channel.size()) {
+            channel.truncate(end);
+        }
+        channel.position(end);
+        flushedSize = end;
+    }
+
+    public Notification append(String name, String email) {
+        var notification = new Notification(sequence.incrementAndGet(), name, email, Instant.now());
+        index(notification);
+        pending.offer(notification);
+        return notification;
+    }
+
+    // the notifications after the `after` sequence, oldest first.
+    public NotificationPage page(long after, int limit) {
+        List<Notification> notifications = index.tailMap(after, false)
+                .values()
+                .stream()
+                .limit(limit)
+                .toList();
+        Long next = notifications.size() < limit ? null : notifications.getLast().sequence();
+        return new NotificationPage(notifications, next);
+    }
+
+    // writes the pending notifications, returns the number of written entries.
+    // The entries are only taken off the queue once forced to disk, a failed write is retried by the next flush.
+    public int flush() {
+        flushLock.lock();
+        try {
+            // only the flush removes entries, under the lock, the head of the queue is the batch being written.
+            List<Notification> batch = new ArrayList<>();
+            for (Notification notification : pending) {
+                batch.add(notification);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                for (Notification entry : batch) {
+                    writer.write(format(entry));
+                }
+                writer.flush();
+                channel.force(false);
+                flushedSize = channel.position();
+            } catch (IOException e) {
+                discardPartialWrite();
+                throw new UncheckedIOException("can not write notification ledger: " + file, e);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                pending.poll();
+            }
+            LOGGER.log(Level.FINEST, "flushed {0} notifications", batch.size());
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // the batch is written again by the next flush, drop what made it to the file and the writer buffer.
+    private void discardPartialWrite() {
+        try {
+            channel.truncate(flushedSize);
+            channel.position(flushedSize);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "can not discard a partial write to {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+        writer = newWriter();
+    }
+
+    private static String format(Notification notification) {
+        return notification.sequence() + "\t"
+                + notification.sentAt() + "\t"
+                + clean(notification.name()) + "\t"
+                + clean(notification.email()) + "\n";
+    }
+
+    // tabs and line breaks would break the line format
+    private static String clean(String value) {
+        return value == null ? "" : value.replaceAll("[\t\r\n]", " ");
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "failed to close notification ledger: " + e.getMessage());
+            }
+        }
+    }
+}
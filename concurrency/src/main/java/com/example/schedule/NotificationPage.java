@@ -0,0 +1,7 @@
+package com.example.schedule;
+
+import java.util.List;
+
+// `next` is the cursor for the following page, null when there are no more notifications.
+public record NotificationPage(List<Notification> notifications, Long next) {
+}
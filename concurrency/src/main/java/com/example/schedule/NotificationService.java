@@ -1,25 +1,74 @@
 package com.example.schedule;
 
+import com.example.vt.WithVirtualThread;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @ApplicationScoped
 public class NotificationService {
     private static final Logger LOGGER = Logger.getLogger(NotificationService.class.getName());
-    private final List<String> names = new CopyOnWriteArrayList<>();
+
+    // where the sent notifications are kept across restarts, and how often the pending ones are written.
+    static final String LEDGER_FILE = System.getProperty(
+            "schedule.ledger.file",
+            Path.of(System.getProperty("java.io.tmpdir"), "notifications.ledger").toString()
+    );
+    static final long FLUSH_INTERVAL_MILLIS = Long.getLong("schedule.ledger.flushIntervalMillis", 1_000);
+    // the number of latest notifications kept in memory for paging, older ones are only in the file until compacted.
+    static final int MAX_INDEXED = Integer.getInteger("schedule.ledger.maxIndexed", NotificationLedger.DEFAULT_MAX_INDEXED);
+
+    @Inject
+    @WithVirtualThread
+    ManagedScheduledExecutorService executor;
+
+    private NotificationLedger ledger;
+
+    private ScheduledFuture<?> flushing;
+
+    @PostConstruct
+    public void init() {
+        this.ledger = NotificationLedger.open(Path.of(LEDGER_FILE), MAX_INDEXED);
+        this.flushing = executor.scheduleWithFixedDelay(
+                this::flush,
+                FLUSH_INTERVAL_MILLIS,
+                FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushing != null) {
+            flushing.cancel(false);
+        }
+        ledger.close();
+    }
+
+    // a failed flush must not cancel the periodic task, the entries are retried on the next run.
+    private void flush() {
+        try {
+            ledger.flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "failed to flush notification ledger", e);
+        }
+    }
 
     public void send(String name, String email) {
-        LOGGER.log(Level.INFO, "sending invite to:[{0}] via {1}", new Object[]{name, email});
-        this.names.add(name);
+        LOGGER.log(Level.FINE, "sending invite to:[{0}] via {1}", new Object[]{name, email});
+        this.ledger.append(name, email);
     }
 
-    public List<String> getNames() {
-        return Collections.unmodifiableList(names);
+    public NotificationPage notifications(long after, int limit) {
+        return ledger.page(after, limit);
     }
 
 }
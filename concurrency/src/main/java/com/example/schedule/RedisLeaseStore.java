@@ -0,0 +1,61 @@
+package com.example.schedule;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Leases kept as Redis keys expiring with the lease, `SET NX PX` lets a single node create the key.
+// The release only touches a key still owned by the caller, checked atomically in a script.
+public class RedisLeaseStore implements LeaseStore, AutoCloseable {
+    static final String KEY_FORMAT = "schedule:lock:%s";
+    static final String RELEASE_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                if tonumber(ARGV[2]) > 0 then
+                    return redis.call('pexpire', KEYS[1], ARGV[2])
+                end
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final StatefulRedisConnection<String, String> connection;
+
+    public RedisLeaseStore(RedisClient redisClient) {
+        this.connection = redisClient.connect();
+    }
+
+    // Redis expires the key on its own clock, only the lease duration is sent.
+    @Override
+    public boolean tryAcquire(String name, String owner, Instant now, Instant lockedUntil) {
+        long millis = Duration.between(now, lockedUntil).toMillis();
+        if (millis <= 0) {
+            return false;
+        }
+        return "OK".equals(connection.sync().set(key(name), owner, SetArgs.Builder.nx().px(millis)));
+    }
+
+    @Override
+    public void release(String name, String owner, Instant now, Instant lockedUntil) {
+        long millis = Math.max(Duration.between(now, lockedUntil).toMillis(), 0);
+        connection.sync().eval(
+                RELEASE_SCRIPT,
+                ScriptOutputType.INTEGER,
+                new String[]{key(name)},
+                owner,
+                Long.toString(millis)
+        );
+    }
+
+    static String key(String name) {
+        return KEY_FORMAT.formatted(name);
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -3,10 +3,14 @@ package com.example.schedule;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -22,6 +26,12 @@ public class ScheduleResources {
     @Inject
     StandUpMeeting meeting;
 
+    @Inject
+    SchedulerLock schedulerLock;
+
+    @Inject
+    ScheduledJobs scheduledJobs;
+
     @POST
     public Response invite() {
         meeting.sendInviteNotifications();
@@ -30,7 +40,22 @@ public class ScheduleResources {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<String> getInvitedNames() {
-        return notificationService.getNames();
+    public NotificationPage getInvitedNames(@QueryParam("after") @DefaultValue("0") @Min(0) long after,
+                                            @QueryParam("limit") @DefaultValue("100") @Min(1) @Max(1000) int limit) {
+        return notificationService.notifications(after, limit);
+    }
+
+    @GET
+    @Path("lock")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SchedulerLockStats lockStats() {
+        return schedulerLock.stats();
+    }
+
+    @GET
+    @Path("jobs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<JobStatus> jobs() {
+        return scheduledJobs.statuses();
     }
 }
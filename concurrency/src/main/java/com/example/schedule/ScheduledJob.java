@@ -0,0 +1,179 @@
+package com.example.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Guards a scheduled job against overlapping runs, a firing coming while the job is running is
+// skipped or coalesced according to the misfire policy, so slow runs do not pile up on the executor.
+// The last runs and misfires are kept in a bounded history.
+public class ScheduledJob {
+    private static final Logger LOGGER = Logger.getLogger(ScheduledJob.class.getName());
+
+    private final String name;
+    private final MisfirePolicy policy;
+    private final Duration fixedDelay;
+    private final int historySize;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<JobExecution> history;
+    private boolean running;
+    private boolean pending;
+    private Instant lastEnd;
+    private long runs;
+    private long misfires;
+
+    public ScheduledJob(String name, MisfirePolicy policy, Duration fixedDelay, int historySize, Clock clock) {
+        if (historySize < 1) {
+            throw new IllegalArgumentException("historySize must be positive: " + historySize);
+        }
+        this.name = name;
+        this.policy = policy;
+        this.fixedDelay = fixedDelay;
+        this.historySize = historySize;
+        this.clock = clock;
+        this.history = new ArrayDeque<>(historySize);
+    }
+
+    // runs the job on the calling thread unless the misfire policy drops the firing,
+    // with COALESCE the caller also runs the firings coalesced in the meantime.
+    public JobExecution.Outcome fire(Runnable job) {
+        return fireWithLease(() -> {
+            job.run();
+            return true;
+        });
+    }
+
+    // like `fire`, for a job guarded by a cluster wide lease, see SchedulerLock.
+    // the job returns false when another node holds the lease, the run is then recorded as LEASE_HELD.
+    public JobExecution.Outcome fireWithLease(BooleanSupplier job) {
+        Instant firedAt = clock.instant();
+        lock.lock();
+        try {
+            if (running) {
+                if (policy == MisfirePolicy.COALESCE) {
+                    pending = true;
+                    return misfire(firedAt, JobExecution.Outcome.COALESCED);
+                }
+                return misfire(firedAt, JobExecution.Outcome.SKIPPED);
+            }
+            if (policy == MisfirePolicy.FIXED_DELAY && lastEnd != null && firedAt.isBefore(lastEnd.plus(fixedDelay))) {
+                return misfire(firedAt, JobExecution.Outcome.SKIPPED);
+            }
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+
+        boolean finished = false;
+        try {
+            JobExecution.Outcome outcome;
+            do {
+                outcome = run(job);
+            } while (runPending());
+            finished = true;
+            return outcome;
+        } finally {
+            if (!finished) {
+                abandon();
+            }
+        }
+    }
+
+    private JobExecution.Outcome run(BooleanSupplier job) {
+        Instant start = clock.instant();
+        JobExecution.Outcome outcome;
+        String error = null;
+        try {
+            outcome = job.getAsBoolean() ? JobExecution.Outcome.SUCCEEDED : JobExecution.Outcome.LEASE_HELD;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "scheduled job " + name + " failed", e);
+            outcome = JobExecution.Outcome.FAILED;
+            error = e.toString();
+        } catch (Error e) {
+            // recorded, then thrown to the caller of fire
+            complete(start, JobExecution.Outcome.FAILED, e.toString());
+            throw e;
+        }
+        complete(start, outcome, error);
+        return outcome;
+    }
+
+    private void complete(Instant start, JobExecution.Outcome outcome, String error) {
+        Instant end = clock.instant();
+        lock.lock();
+        try {
+            runs++;
+            lastEnd = end;
+            record(new JobExecution(start, end, Duration.between(start, end), outcome, error));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // clears the running flag unless a coalesced firing is waiting
+    private boolean runPending() {
+        lock.lock();
+        try {
+            if (pending) {
+                pending = false;
+                return true;
+            }
+            running = false;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // a run which did not return normally, the job can fire again and a coalesced firing is dropped
+    private void abandon() {
+        lock.lock();
+        try {
+            if (pending) {
+                LOGGER.log(Level.WARNING, "scheduled job {0} stopped, its coalesced firing is dropped", name);
+            }
+            pending = false;
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called with the lock held
+    private JobExecution.Outcome misfire(Instant firedAt, JobExecution.Outcome outcome) {
+        misfires++;
+        record(new JobExecution(firedAt, firedAt, Duration.ZERO, outcome, null));
+        LOGGER.log(Level.FINE, "scheduled job {0} misfired: {1}", new Object[]{name, outcome});
+        return outcome;
+    }
+
+    // must be called with the lock held
+    private void record(JobExecution execution) {
+        if (history.size() == historySize) {
+            history.pollFirst();
+        }
+        history.addLast(execution);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public JobStatus status() {
+        lock.lock();
+        try {
+            return new JobStatus(name, policy, running, runs, misfires, List.copyOf(history));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
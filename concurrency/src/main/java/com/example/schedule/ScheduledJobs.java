@@ -0,0 +1,38 @@
+package com.example.schedule;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The scheduled jobs of the application, a job is configured with
+// `-Dschedule.jobs.<name>.misfirePolicy=SKIP_IF_RUNNING|COALESCE|FIXED_DELAY` and `-Dschedule.jobs.<name>.fixedDelayMillis`.
+@ApplicationScoped
+public class ScheduledJobs {
+    // number of runs and misfires kept per job.
+    static final int HISTORY_SIZE = Integer.getInteger("schedule.jobs.historySize", 50);
+
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+
+    public ScheduledJob job(String name, MisfirePolicy defaultPolicy) {
+        return jobs.computeIfAbsent(name, n -> new ScheduledJob(
+                n,
+                MisfirePolicy.valueOf(System.getProperty("schedule.jobs." + n + ".misfirePolicy", defaultPolicy.name())),
+                Duration.ofMillis(Long.getLong("schedule.jobs." + n + ".fixedDelayMillis", 0)),
+                HISTORY_SIZE,
+                Clock.systemUTC()
+        ));
+    }
+
+    public List<JobStatus> statuses() {
+        return jobs.values()
+                .stream()
+                .map(ScheduledJob::status)
+                .sorted(Comparator.comparing(JobStatus::name))
+                .toList();
+    }
+}
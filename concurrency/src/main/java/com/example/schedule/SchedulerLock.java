@@ -0,0 +1,103 @@
+package com.example.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Runs a scheduled job on a single node of the cluster, the node holding the job lease.
+// The lease is kept for at least `lockAtLeastFor` after the job, so nodes firing the same trigger a bit later
+// because of clock skew do not run it again, and for at most `lockAtMostFor` if the node dies while running it.
+// When the lease store can not be reached the job is skipped, running it twice is worse than missing one run.
+public class SchedulerLock {
+    private static final Logger LOGGER = Logger.getLogger(SchedulerLock.class.getName());
+
+    private final LeaseStore store;
+    private final String nodeId;
+    private final Clock clock;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+
+    public SchedulerLock(LeaseStore store, String nodeId, Clock clock) {
+        this.store = store;
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    // returns true when the job has been run on this node.
+    public boolean runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable job) {
+        if (lockAtLeastFor.compareTo(lockAtMostFor) > 0) {
+            throw new IllegalArgumentException("lockAtLeastFor is longer than lockAtMostFor: " + lockAtLeastFor);
+        }
+        Instant startedAt = clock.instant();
+        if (!tryAcquire(name, startedAt, startedAt.plus(lockAtMostFor))) {
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            release(name, startedAt.plus(lockAtLeastFor));
+        }
+    }
+
+    private boolean tryAcquire(String name, Instant now, Instant lockedUntil) {
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = store.tryAcquire(name, nodeId, now, lockedUntil);
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOGGER.log(Level.WARNING, "can not acquire lease of job: " + name + ", skipping it", e);
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            attempts.increment();
+            acquireNanos.add(elapsed);
+            maxAcquireNanos.accumulate(elapsed);
+        }
+        if (locked) {
+            acquired.increment();
+        } else {
+            skipped.increment();
+            LOGGER.log(Level.FINE, "job {0} is locked by another node", name);
+        }
+        return locked;
+    }
+
+    private void release(String name, Instant lockedUntil) {
+        Instant now = clock.instant();
+        try {
+            store.release(name, nodeId, now, lockedUntil.isAfter(now) ? lockedUntil : now);
+        } catch (RuntimeException e) {
+            // the lease expires after lockAtMostFor anyway
+            errors.increment();
+            LOGGER.log(Level.WARNING, "can not release lease of job: " + name, e);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public SchedulerLockStats stats() {
+        long count = attempts.sum();
+        return new SchedulerLockStats(
+                nodeId,
+                acquired.sum(),
+                skipped.sum(),
+                errors.sum(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get())
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.schedule;
+
+import io.lettuce.core.RedisClient;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class SchedulerLockProducer {
+    private static final Logger LOGGER = Logger.getLogger(SchedulerLockProducer.class.getName());
+
+    // where the job leases are kept, `jdbc` (the default datasource) or `redis`, and the name of this node.
+    static final String LEASE_STORE = System.getProperty("schedule.lock.store", "jdbc");
+    static final String NODE_ID = System.getProperty("schedule.lock.nodeId", ManagementFactory.getRuntimeMXBean().getName());
+
+    @Resource(lookup = "java:comp/DefaultDataSource")
+    DataSource dataSource;
+
+    // only resolved with `-Dschedule.lock.store=redis`
+    @Inject
+    Instance<RedisClient> redisClient;
+
+    // the lease stores are not proxyable, use the Singleton pseudo-scope instead.
+    @Produces
+    @Singleton
+    public LeaseStore leaseStore() {
+        LOGGER.log(Level.FINE, "using {0} lease store on node {1}", new Object[]{LEASE_STORE, NODE_ID});
+        return "redis".equalsIgnoreCase(LEASE_STORE)
+                ? new RedisLeaseStore(redisClient.get())
+                : new JdbcLeaseStore(dataSource).createTable();
+    }
+
+    public void closeLeaseStore(@Disposes LeaseStore store) {
+        if (store instanceof RedisLeaseStore redisStore) {
+            redisStore.close();
+        }
+    }
+
+    @Produces
+    @Singleton
+    public SchedulerLock schedulerLock(LeaseStore store) {
+        return new SchedulerLock(store, NODE_ID, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.schedule;
+
+public record SchedulerLockStats(
+        String nodeId,
+        long acquired,
+        long skipped,
+        long errors,
+        long averageAcquireMicros,
+        long maxAcquireMicros
+) {
+}
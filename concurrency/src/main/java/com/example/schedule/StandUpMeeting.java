@@ -1,5 +1,6 @@
 package com.example.schedule;
 
+import com.example.vt.WithVirtualThread;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.concurrent.Asynchronous;
 import jakarta.enterprise.concurrent.ManagedThreadFactory;
@@ -8,8 +9,8 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,15 +23,37 @@ public class StandUpMeeting {
             "ross", "ross@example.com"
     );
 
+    // max number of concurrent sends, and how long a single send may take.
+    static final int MAX_IN_FLIGHT = Integer.getInteger("schedule.notification.maxInFlight", 1_000);
+    static final long SEND_TIMEOUT_MILLIS = Long.getLong("schedule.notification.timeoutMillis", 100);
+    // the job lease, kept while sending and for a while after, shorter than the 5 seconds test trigger.
+    static final String JOB_NAME = "standup-invites";
+    static final long LOCK_AT_MOST_FOR_MILLIS = Long.getLong("schedule.lock.atMostForMillis", 60_000);
+    static final long LOCK_AT_LEAST_FOR_MILLIS = Long.getLong("schedule.lock.atLeastForMillis", 4_000);
+
     @Inject
+    @WithVirtualThread
     ManagedThreadFactory threadFactory;
 
     @Inject
     NotificationService notificationService;
 
+    @Inject
+    SchedulerLock schedulerLock;
+
+    @Inject
+    ScheduledJobs scheduledJobs;
+
+    private NotificationDispatcher dispatcher;
+
+    private ScheduledJob job;
+
     @PostConstruct
     public void init() {
         LOGGER.log(Level.ALL, "init from scheduled tasks....");
+        this.dispatcher = new NotificationDispatcher(threadFactory, MAX_IN_FLIGHT, Duration.ofMillis(SEND_TIMEOUT_MILLIS));
+        // a run outlasting the 5 seconds test trigger must not be followed by a pile of overlapping ones.
+        this.job = scheduledJobs.job(JOB_NAME, MisfirePolicy.SKIP_IF_RUNNING);
     }
 
     @Asynchronous(
@@ -52,38 +75,23 @@ public class StandUpMeeting {
     )
     void sendInviteNotifications() {
         LOGGER.log(Level.ALL, "running scheduled tasks....");
-        try (ForkJoinPool pool = new ForkJoinPool(
-                Runtime.getRuntime().availableProcessors(),
-                threadFactory,
-                (t, e) -> LOGGER.log(Level.INFO, "Thread: {0}, error: {1}", new Object[]{t.getName(), e.getMessage()}),
-                true
-        )) {
-
-            var callables = members.keySet().stream()
-                    .map(
-                            name -> (Callable<Void>) () -> {
-                                LOGGER.info("calling invite:" + name);
-                                notificationService.send(name, members.get(name));
-                                return null;
-                            }
-                    )
-                    .toList();
-
-            var futures = pool.invokeAll(callables)
-                    .stream()
-                    .map(
-                            r -> {
-                                try {
-                                    return CompletableFuture.completedFuture(r.get(100, TimeUnit.MILLISECONDS));
-                                } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                                    throw new CompletionException(e);
-                                }
-                            }
-                    )
-                    .toList();
+        job.fireWithLease(this::sendInvitesOnce);
+    }
 
-            var result = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
-            result.join();
+    // every node fires the trigger, only the one holding the lease sends the invites.
+    private boolean sendInvitesOnce() {
+        boolean ran = schedulerLock.runExclusively(
+                JOB_NAME,
+                Duration.ofMillis(LOCK_AT_MOST_FOR_MILLIS),
+                Duration.ofMillis(LOCK_AT_LEAST_FOR_MILLIS),
+                () -> {
+                    var report = dispatcher.dispatch(members, notificationService::send);
+                    LOGGER.log(Level.FINE, "invites sent: {0}", report);
+                }
+        );
+        if (!ran) {
+            LOGGER.log(Level.FINE, "invites are sent by another node");
         }
+        return ran;
     }
 }
@@ -0,0 +1,10 @@
+package com.example.sse;
+
+public record HeartbeatStats(
+        int trackedSinks,
+        long heartbeats,
+        long averageLatencyMicros,
+        long maxLatencyMicros,
+        long reapedSinks
+) {
+}
@@ -0,0 +1,206 @@
+package com.example.sse;
+
+import com.example.vt.WithVirtualThread;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Writes an SSE comment to every registered sink at a fixed interval, shared by all SSE endpoints.
+// Proxies and load balancers keep idle connections open, and a dead peer is detected by the failing write.
+// A sink is reaped when the write fails, or when no heartbeat got through for `sse.heartbeat.reapAfterSeconds`,
+// e.g. a client which stopped reading and whose queue stays backlogged.
+@ApplicationScoped
+public class SseHeartbeat {
+    private static final Logger LOGGER = Logger.getLogger(SseHeartbeat.class.getName());
+    static final Duration INTERVAL = Duration.ofSeconds(Long.getLong("sse.heartbeat.intervalSeconds", 15));
+    static final Duration REAP_AFTER = Duration.ofSeconds(Long.getLong("sse.heartbeat.reapAfterSeconds", 60));
+    // max number of sinks written by one task.
+    static final int SHARD_SIZE = Integer.getInteger("sse.heartbeat.shardSize", 500);
+
+    @Inject
+    @WithVirtualThread
+    ManagedScheduledExecutorService managedExecutor;
+
+    private ScheduledExecutorService executor;
+    private Duration interval = INTERVAL;
+    private Duration reapAfter = REAP_AFTER;
+    private volatile Supplier<OutboundSseEvent> heartbeatEvent;
+    private ScheduledFuture<?> task;
+
+    private final Map<SseEventSink, Tracked> sinks = new ConcurrentHashMap<>();
+
+    private final LongAdder heartbeats = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder reaped = new LongAdder();
+
+    private static final class Tracked {
+        final Runnable onReap;
+        volatile long lastWritten;
+        volatile boolean pending;
+
+        Tracked(Runnable onReap, long now) {
+            this.onReap = onReap;
+            this.lastWritten = now;
+        }
+    }
+
+    public SseHeartbeat() {
+    }
+
+    SseHeartbeat(ScheduledExecutorService executor,
+                 Supplier<OutboundSseEvent> heartbeatEvent,
+                 Duration interval,
+                 Duration reapAfter) {
+        this.executor = executor;
+        this.heartbeatEvent = heartbeatEvent;
+        this.interval = interval;
+        this.reapAfter = reapAfter;
+        start();
+    }
+
+    @PostConstruct
+    public void init() {
+        this.executor = managedExecutor;
+        start();
+    }
+
+    private void start() {
+        this.task = executor.scheduleAtFixedRate(this::beat, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        task.cancel(false);
+    }
+
+    // called by the resources, the heartbeat is a comment only event built from their Sse.
+    public void setSse(Sse sse) {
+        if (heartbeatEvent == null) {
+            this.heartbeatEvent = () -> sse.newEventBuilder().comment("heartbeat").build();
+        }
+    }
+
+    // `onReap` removes the sink from wherever it is registered, it is also called when the sink has been closed.
+    public void register(SseEventSink sink, Runnable onReap) {
+        sinks.put(sink, new Tracked(onReap, System.nanoTime()));
+    }
+
+    public void unregister(SseEventSink sink) {
+        sinks.remove(sink);
+    }
+
+    void beat() {
+        if (heartbeatEvent == null || sinks.isEmpty()) {
+            return;
+        }
+        OutboundSseEvent event = heartbeatEvent.get();
+        SseEventSink[] targets = sinks.keySet().toArray(SseEventSink[]::new);
+        for (int from = 0; from < targets.length; from += SHARD_SIZE) {
+            int start = from;
+            int end = Math.min(from + SHARD_SIZE, targets.length);
+            executor.execute(() -> beat(targets, start, end, event));
+        }
+    }
+
+    private void beat(SseEventSink[] targets, int start, int end, OutboundSseEvent event) {
+        long now = System.nanoTime();
+        for (int i = start; i < end; i++) {
+            SseEventSink sink = targets[i];
+            Tracked tracked = sinks.get(sink);
+            if (tracked == null) {
+                continue;
+            }
+            if (sink.isClosed()) {
+                remove(sink, tracked);
+                continue;
+            }
+            if (now - tracked.lastWritten > reapAfter.toNanos()) {
+                LOGGER.log(Level.FINE, "reaping sink without a successful write for {0}: {1}", new Object[]{reapAfter, sink});
+                reap(sink, tracked);
+                continue;
+            }
+            if (!tracked.pending) {
+                send(sink, tracked, event);
+            }
+        }
+    }
+
+    private void send(SseEventSink sink, Tracked tracked, OutboundSseEvent event) {
+        tracked.pending = true;
+        long sent = System.nanoTime();
+        CompletionStage<?> stage;
+        try {
+            stage = sink instanceof TrackedSseEventSink trackedSink ? trackedSink.sendTracked(event) : sink.send(event);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "reaping sink, failed to send heartbeat: " + sink, e);
+            reap(sink, tracked);
+            return;
+        }
+        stage.whenComplete((r, e) -> {
+            tracked.pending = false;
+            if (e == null) {
+                long written = System.nanoTime();
+                tracked.lastWritten = written;
+                heartbeats.increment();
+                latencyNanos.add(written - sent);
+                maxLatencyNanos.accumulate(written - sent);
+            } else if (sink.isClosed()) {
+                LOGGER.log(Level.FINE, "reaping sink, failed to write heartbeat: " + sink, e);
+                reap(sink, tracked);
+            }
+            // otherwise the heartbeat could not be queued, it is retried on the next beat
+        });
+    }
+
+    private void reap(SseEventSink sink, Tracked tracked) {
+        if (sinks.remove(sink, tracked)) {
+            reaped.increment();
+            close(sink);
+            tracked.onReap.run();
+        }
+    }
+
+    private void remove(SseEventSink sink, Tracked tracked) {
+        if (sinks.remove(sink, tracked)) {
+            tracked.onReap.run();
+        }
+    }
+
+    private static void close(SseEventSink sink) {
+        try {
+            sink.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINEST, "failed to close sink: " + e.getMessage());
+        }
+    }
+
+    public HeartbeatStats stats() {
+        long count = heartbeats.sum();
+        return new HeartbeatStats(
+                sinks.size(),
+                count,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(latencyNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get()),
+                reaped.sum()
+        );
+    }
+}
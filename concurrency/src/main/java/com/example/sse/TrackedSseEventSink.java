@@ -0,0 +1,13 @@
+package com.example.sse;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.concurrent.CompletionStage;
+
+// A sink which queues the events it is sent, and can tell when a given event has actually been written.
+public interface TrackedSseEventSink extends SseEventSink {
+
+    // the returned stage completes once the event has been written to the client.
+    CompletionStage<Void> sendTracked(OutboundSseEvent event);
+}
@@ -0,0 +1,121 @@
+package com.example.vt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// An AIMD concurrency limit driven by latency: the limit grows by one for every sample taken while
+// the limit is in use, and shrinks by the backoff ratio when a sample is slower than `tolerance` times
+// the baseline, the minimum latency seen over the current and the previous window of samples.
+// Rolling the baseline lets the limit settle again when the downstream latency changes for good.
+public class AdaptiveLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private final double tolerance;
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long previousWindowMinRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoff, double tolerance, int windowSize) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("expected 1 <= min <= initial <= max limit: " + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("backoff must be between 0 and 1: " + backoff);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+    }
+
+    // takes a slot, false right away when the limit is reached.
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    // releases a slot, adjusting the limit from the latency of the call.
+    public void release(long rttNanos) {
+        int released = inFlight.getAndDecrement();
+        lock.lock();
+        try {
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+            long baseline = Math.min(windowMinRtt, previousWindowMinRtt);
+            if (++windowSamples == windowSize) {
+                previousWindowMinRtt = windowMinRtt;
+                windowMinRtt = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+
+            int current = limit;
+            if (rttNanos > tolerance * baseline) {
+                limit = Math.max(minLimit, (int) (current * backoff));
+                decreases.increment();
+            } else if (released * 2 >= current) {
+                // only grow a limit which is actually used
+                limit = Math.min(maxLimit, current + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // releases a slot without a latency sample, e.g. when the call failed for another reason than load.
+    public void ignore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    long accepted() {
+        return accepted.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long decreases() {
+        return decreases.sum();
+    }
+
+    long baselineMicros() {
+        lock.lock();
+        try {
+            long baseline = Math.min(windowMinRtt, previousWindowMinRtt);
+            return baseline == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMicros(baseline);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
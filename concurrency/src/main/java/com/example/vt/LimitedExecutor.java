@@ -0,0 +1,71 @@
+package com.example.vt;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Submits tasks to the delegate executor within the adaptive limit, a task over the limit is rejected
+// right away instead of waiting in the executor queue. The task run time is the latency sample, the time
+// between the submission and the start of the task is reported as queue wait.
+public class LimitedExecutor implements Executor {
+    private final Executor delegate;
+    private final AdaptiveLimiter limiter;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public LimitedExecutor(Executor delegate, AdaptiveLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!limiter.tryAcquire()) {
+            throw new RejectedExecutionException("concurrency limit reached: " + limiter.limit());
+        }
+        long submitted = System.nanoTime();
+        try {
+            delegate.execute(() -> run(task, submitted));
+        } catch (RejectedExecutionException e) {
+            limiter.ignore();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long submitted) {
+        long start = System.nanoTime();
+        long waited = start - submitted;
+        started.increment();
+        queueWaitNanos.add(waited);
+        maxQueueWaitNanos.accumulate(waited);
+        boolean completed = false;
+        try {
+            task.run();
+            completed = true;
+        } finally {
+            if (completed) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.ignore();
+            }
+        }
+    }
+
+    public LimiterStats stats() {
+        long count = started.sum();
+        return new LimiterStats(
+                limiter.limit(),
+                limiter.inFlight(),
+                limiter.accepted(),
+                limiter.rejected(),
+                limiter.decreases(),
+                limiter.baselineMicros(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueWaitNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.get())
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.vt;
+
+public record LimiterStats(
+        int limit,
+        int inFlight,
+        long accepted,
+        long rejected,
+        long limitDecreases,
+        long baselineLatencyMicros,
+        long averageQueueWaitMicros,
+        long maxQueueWaitMicros
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.vt;
+
+// JFR events of one type recorded at one application call site.
+public record PinnedCallSite(
+        String event,
+        String callSite,
+        long count,
+        long totalMicros,
+        long maxMicros
+) {
+}
@@ -0,0 +1,128 @@
+package com.example.vt;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Streams the JFR events of virtual threads pinning their carrier thread (parking inside a synchronized
+// block or a native frame) and of virtual threads which could not be scheduled, and counts them per call
+// site. The call site is the innermost frame of the application package, the stack tops are JDK frames.
+public class PinningMonitor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PinningMonitor.class.getName());
+    static final String PINNED = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+
+    private final RecordingStream stream;
+    private final String applicationPackage;
+
+    private final Map<String, CallSite> callSites = new ConcurrentHashMap<>();
+    private final LongAdder pinned = new LongAdder();
+    private final LongAdder submitFailures = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private static final class CallSite {
+        final String event;
+        final String frame;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        CallSite(String event, String frame) {
+            this.event = event;
+            this.frame = frame;
+        }
+
+        PinnedCallSite snapshot() {
+            return new PinnedCallSite(
+                    event,
+                    frame,
+                    count.sum(),
+                    TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos.get())
+            );
+        }
+    }
+
+    // pinning shorter than `pinnedThreshold` is not recorded, JFR uses 20 ms by default.
+    public PinningMonitor(Duration pinnedThreshold, String applicationPackage) {
+        this.applicationPackage = applicationPackage;
+        this.stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(pinnedThreshold).withStackTrace();
+        stream.enable(SUBMIT_FAILED).withStackTrace();
+        stream.onEvent(PINNED, event -> {
+            pinned.increment();
+            record(event);
+        });
+        stream.onEvent(SUBMIT_FAILED, event -> {
+            submitFailures.increment();
+            record(event);
+        });
+        stream.onFlush(flushes::increment);
+    }
+
+    public void start() {
+        stream.startAsync();
+    }
+
+    private void record(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        String frame = callSite(event);
+        long nanos = event.getDuration().toNanos();
+        var site = callSites.computeIfAbsent(name + " " + frame, key -> new CallSite(name, frame));
+        site.count.increment();
+        site.totalNanos.add(nanos);
+        site.maxNanos.accumulate(nanos);
+        LOGGER.log(Level.FINE, "{0} at {1} for {2} micros", new Object[]{name, frame, TimeUnit.NANOSECONDS.toMicros(nanos)});
+    }
+
+    private String callSite(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        return stackTrace.getFrames()
+                .stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(applicationPackage))
+                .findFirst()
+                .or(() -> stackTrace.getFrames().stream().findFirst())
+                .map(PinningMonitor::format)
+                .orElse("unknown");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public PinningStats stats() {
+        return new PinningStats(
+                true,
+                pinned.sum(),
+                submitFailures.sum(),
+                callSites.values()
+                        .stream()
+                        .map(CallSite::snapshot)
+                        .sorted(Comparator.comparingLong(PinnedCallSite::count).reversed())
+                        .toList()
+        );
+    }
+
+    // number of event batches delivered, the events of a batch have all been counted when it changes.
+    long flushCount() {
+        return flushes.sum();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
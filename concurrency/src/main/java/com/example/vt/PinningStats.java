@@ -0,0 +1,11 @@
+package com.example.vt;
+
+import java.util.List;
+
+public record PinningStats(
+        boolean enabled,
+        long pinnedEvents,
+        long submitFailures,
+        List<PinnedCallSite> callSites
+) {
+}
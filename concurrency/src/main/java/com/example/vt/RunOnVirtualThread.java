@@ -0,0 +1,20 @@
+package com.example.vt;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.*;
+
+// Runs the annotated resource methods taking a `@Suspended AsyncResponse` on the virtual thread executor,
+// see RunOnVirtualThreadInterceptor.
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RunOnVirtualThread {
+
+    // false for long running methods, e.g. streaming a response body: their run time says nothing about
+    // the load of the backing services and would shrink the adaptive limit shared by all the other methods.
+    @Nonbinding
+    boolean limited() default true;
+}
@@ -0,0 +1,113 @@
+package com.example.vt;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.container.AsyncResponse;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Moves the blocking part of a request off the container request thread: the method is run on the
+// virtual thread executor, within its adaptive concurrency limit, and the request thread returns as soon
+// as it has been submitted. The response is written when the method resumes its AsyncResponse.
+// Methods marked `limited = false` skip the limit and run on the plain virtual thread executor.
+// A failure resumes it with the exception, so the usual exception mappers apply.
+// Methods without an AsyncResponse parameter run on the calling thread.
+// The request context is not active on the virtual thread, the method should only use application
+// scoped or dependent beans.
+@RunOnVirtualThread
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class RunOnVirtualThreadInterceptor {
+    private static final Logger LOGGER = Logger.getLogger(RunOnVirtualThreadInterceptor.class.getName());
+    // a request rejected by the executor is cancelled, a 503 response with this Retry-After.
+    static final int RETRY_AFTER_SECONDS = Integer.getInteger("vt.request.retryAfterSeconds", 1);
+
+    // rejects the requests over the adaptive concurrency limit
+    @Inject
+    @WithVirtualThread
+    LimitedExecutor limitedExecutor;
+
+    @Inject
+    @WithVirtualThread
+    ManagedExecutorService unlimitedExecutor;
+
+    private Executor executor;
+    private Executor unlimited;
+
+    public RunOnVirtualThreadInterceptor() {
+    }
+
+    RunOnVirtualThreadInterceptor(Executor executor) {
+        this(executor, executor);
+    }
+
+    RunOnVirtualThreadInterceptor(Executor executor, Executor unlimited) {
+        this.executor = executor;
+        this.unlimited = unlimited;
+    }
+
+    @AroundInvoke
+    public Object runOnVirtualThread(InvocationContext context) throws Exception {
+        AsyncResponse response = asyncResponse(context.getParameters());
+        if (response == null) {
+            return context.proceed();
+        }
+        try {
+            executor(limited(context.getMethod())).execute(() -> proceed(context, response));
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "rejected request to: {0}", context.getMethod());
+            response.cancel(RETRY_AFTER_SECONDS);
+        }
+        return null;
+    }
+
+    private static void proceed(InvocationContext context, AsyncResponse response) {
+        try {
+            context.proceed();
+        } catch (Exception e) {
+            if (response.isSuspended()) {
+                response.resume(e);
+            } else {
+                LOGGER.log(Level.WARNING, "failed after resuming the response of: " + context.getMethod(), e);
+            }
+        }
+    }
+
+    private Executor executor(boolean limited) {
+        if (limited) {
+            return executor != null ? executor : limitedExecutor;
+        }
+        return unlimited != null ? unlimited : unlimitedExecutor;
+    }
+
+    private static boolean limited(Method method) {
+        if (method == null) {
+            return true;
+        }
+        var binding = method.getAnnotation(RunOnVirtualThread.class);
+        if (binding == null) {
+            binding = method.getDeclaringClass().getAnnotation(RunOnVirtualThread.class);
+        }
+        return binding == null || binding.limited();
+    }
+
+    private static AsyncResponse asyncResponse(Object[] parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        for (Object parameter : parameters) {
+            if (parameter instanceof AsyncResponse response) {
+                return response;
+            }
+        }
+        return null;
+    }
+}
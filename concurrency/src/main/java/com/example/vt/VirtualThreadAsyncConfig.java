@@ -9,9 +9,10 @@ import jakarta.enterprise.context.ApplicationScoped;
 
 import static jakarta.enterprise.concurrent.ContextServiceDefinition.*;
 
+// the executor also runs the @RunOnVirtualThread requests, it bounds the number of requests in flight.
 @ManagedExecutorDefinition(
         name = "java:comp/vtExecutor",
-        maxAsync = 10,
+        maxAsync = 1_000,
         context = "java:comp/vtContextService",
         virtual = true,
         qualifiers = {WithVirtualThread.class}
@@ -5,6 +5,8 @@ import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 import java.util.concurrent.ThreadFactory;
@@ -20,6 +22,13 @@ public class VirtualThreadController {
     @WithVirtualThread
     ManagedThreadFactory vtThreadFactory;
 
+    @Inject
+    VirtualThreadDiagnostics diagnostics;
+
+    @Inject
+    @WithVirtualThread
+    LimitedExecutor limitedExecutor;
+
     @GET
     @Path("")
     public Response vtGet() {
@@ -35,4 +44,18 @@ public class VirtualThreadController {
 
         return Response.accepted().build();
     }
+
+    @GET
+    @Path("diagnostics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public PinningStats diagnostics() {
+        return diagnostics.stats();
+    }
+
+    @GET
+    @Path("limits")
+    @Produces(MediaType.APPLICATION_JSON)
+    public LimiterStats limits() {
+        return limitedExecutor.stats();
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.vt;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Startup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Watches the virtual threads of the managed executors for carrier pinning, `-Dvt.diagnostics.enabled=false` to opt out.
+@ApplicationScoped
+public class VirtualThreadDiagnostics {
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadDiagnostics.class.getName());
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("vt.diagnostics.enabled", "true"));
+    static final Duration PINNED_THRESHOLD = Duration.ofMillis(Long.getLong("vt.diagnostics.pinnedThresholdMillis", 20));
+    // call sites are reported at the innermost frame of this package.
+    static final String APPLICATION_PACKAGE = System.getProperty("vt.diagnostics.package", "com.example");
+
+    private volatile PinningMonitor monitor;
+
+    public void init(@Observes Startup event) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            var pinningMonitor = new PinningMonitor(PINNED_THRESHOLD, APPLICATION_PACKAGE);
+            pinningMonitor.start();
+            this.monitor = pinningMonitor;
+        } catch (RuntimeException e) {
+            // JFR may be unavailable or disabled on the running JVM
+            LOGGER.log(Level.WARNING, "can not start the virtual thread pinning monitor: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (monitor != null) {
+            monitor.close();
+        }
+    }
+
+    public PinningStats stats() {
+        var current = monitor;
+        return current == null ? new PinningStats(false, 0, 0, List.of()) : current.stats();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.vt;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@ApplicationScoped
+public class VirtualThreadLimits {
+    // the limit moves between min and max, max is the maxAsync of the vtExecutor.
+    static final int INITIAL_LIMIT = Integer.getInteger("vt.limit.initial", 100);
+    static final int MIN_LIMIT = Integer.getInteger("vt.limit.min", 10);
+    static final int MAX_LIMIT = Integer.getInteger("vt.limit.max", 1_000);
+    // the limit is cut by `backoff` when a task runs `tolerance` times slower than the baseline,
+    // the minimum run time over the last two windows of `windowSize` tasks.
+    static final double BACKOFF = Double.parseDouble(System.getProperty("vt.limit.backoff", "0.9"));
+    static final double TOLERANCE = Double.parseDouble(System.getProperty("vt.limit.tolerance", "2.0"));
+    static final int WINDOW_SIZE = Integer.getInteger("vt.limit.windowSize", 1_000);
+
+    // not proxyable, use the Singleton pseudo-scope instead.
+    @Produces
+    @Singleton
+    @WithVirtualThread
+    public LimitedExecutor limitedExecutor(@WithVirtualThread ManagedExecutorService executor) {
+        return new LimitedExecutor(
+                executor,
+                new AdaptiveLimiter(INITIAL_LIMIT, MIN_LIMIT, MAX_LIMIT, BACKOFF, TOLERANCE, WINDOW_SIZE)
+        );
+    }
+}
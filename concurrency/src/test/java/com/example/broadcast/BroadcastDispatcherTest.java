@@ -0,0 +1,169 @@
+package com.example.broadcast;
+
+import com.example.chat.TestOutboundSseEvent;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BroadcastDispatcherTest {
+
+    ExecutorService executor;
+    List<String> broadcast = new CopyOnWriteArrayList<>();
+    List<CompletableFuture<Void>> deliveries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // completes the deliveries only when told to, like a broadcaster writing to slow clients
+    CompletionStage<?> stalledBroadcast(OutboundSseEvent event) {
+        broadcast.add(event.getId());
+        var delivered = new CompletableFuture<Void>();
+        deliveries.add(delivered);
+        return delivered;
+    }
+
+    void deliverAll() {
+        deliveries.forEach(delivery -> delivery.complete(null));
+    }
+
+    @Test
+    void testPendingEventsAreBatchedIntoOneCycle() {
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 100, 100, Duration.ofSeconds(30));
+
+        dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 1);
+        // the first cycle is still delivering, these are queued for the next one
+        IntStream.range(1, 50).forEach(i -> dispatcher.submit(() -> TestOutboundSseEvent.of("" + i, "message")));
+        assertThat(dispatcher.stats().queued()).isEqualTo(49);
+
+        deliverAll();
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 50);
+        deliverAll();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> dispatcher.stats().latency().count() == 50);
+        assertThat(dispatcher.stats().cycles()).isEqualTo(2);
+        assertThat(broadcast).containsExactlyElementsOf(IntStream.range(0, 50).mapToObj(i -> "" + i).toList());
+    }
+
+    @Test
+    void testSubmissionsAreRejectedWhenTheQueueIsFull() {
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 10, 10, Duration.ofSeconds(30));
+        dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 1);
+
+        var results = IntStream.range(1, 1_000)
+                .mapToObj(i -> dispatcher.submit(() -> TestOutboundSseEvent.of("" + i, "message")))
+                .toList();
+
+        assertThat(results.stream().filter(result -> result == BroadcastDispatcher.Result.ACCEPTED).count()).isEqualTo(10);
+        assertThat(dispatcher.stats().rejected()).isEqualTo(989);
+        assertThat(dispatcher.stats().queued()).isEqualTo(10);
+    }
+
+    @Test
+    void testRejectedSubmissionDoesNotBuildTheEvent() {
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 1, 1, Duration.ofSeconds(30));
+        dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 1);
+        dispatcher.submit(() -> TestOutboundSseEvent.of("1", "message"));
+
+        var result = dispatcher.submit(() -> {
+            throw new AssertionError("must not be called");
+        });
+
+        assertThat(result).isEqualTo(BroadcastDispatcher.Result.QUEUE_FULL);
+    }
+
+    @Test
+    void testClosedDispatcherRejectsSubmissions() {
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 10, 10, Duration.ofSeconds(30));
+        dispatcher.close();
+
+        assertThat(dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message")))
+                .isEqualTo(BroadcastDispatcher.Result.CLOSED);
+    }
+
+    @Test
+    void testRejectedCycleDropsTheQueueAndDoesNotWedgeTheDispatcher() {
+        var rejecting = new AtomicBoolean(true);
+        Executor executor = task -> {
+            if (rejecting.get()) {
+                throw new RejectedExecutionException("shutting down");
+            }
+            this.executor.execute(task);
+        };
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 10, 10, Duration.ofSeconds(30));
+
+        assertThat(dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message")))
+                .isEqualTo(BroadcastDispatcher.Result.CLOSED);
+        assertThat(dispatcher.stats().queued()).isZero();
+        assertThat(dispatcher.stats().dropped()).isEqualTo(1);
+
+        // the next submission starts a cycle again
+        rejecting.set(false);
+        assertThat(dispatcher.submit(() -> TestOutboundSseEvent.of("1", "message")))
+                .isEqualTo(BroadcastDispatcher.Result.ACCEPTED);
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 1);
+        assertThat(broadcast).containsExactly("1");
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        var dispatcher = new BroadcastDispatcher(executor, event -> {
+            broadcast.add(event.getId());
+            return CompletableFuture.completedFuture(null);
+        }, 100_000, 256, Duration.ofSeconds(30));
+        var replayBuffer = new SseReplayBuffer(16);
+
+        try (var producers = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 10_000).forEach(i -> producers.submit(() -> dispatcher.submit(
+                    () -> replayBuffer.append(id -> TestOutboundSseEvent.of("" + id, "message")))));
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> broadcast.size() == 10_000);
+        assertThat(dispatcher.stats().accepted()).isEqualTo(10_000);
+        assertThat(dispatcher.stats().latency().count()).isEqualTo(10_000);
+        // the ids are claimed by the dispatcher, clients see them in order whatever the producers interleaving
+        assertThat(broadcast).containsExactlyElementsOf(LongStream.rangeClosed(1, 10_000).mapToObj(Long::toString).toList());
+    }
+
+    @Test
+    void testStalledDeliveryDoesNotBlockTheNextCycles() {
+        var dispatcher = new BroadcastDispatcher(executor, this::stalledBroadcast, 100, 100, Duration.ofMillis(100));
+
+        dispatcher.submit(() -> TestOutboundSseEvent.of("0", "message"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 1);
+        dispatcher.submit(() -> TestOutboundSseEvent.of("1", "message"));
+
+        // none of the deliveries completes, the dispatcher stops waiting for them
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcast.size() == 2);
+        await().atMost(Duration.ofSeconds(5)).until(() -> dispatcher.stats().timedOut() == 2);
+        assertThat(deliveries.stream().noneMatch(CompletableFuture::isDone)).isTrue();
+    }
+}
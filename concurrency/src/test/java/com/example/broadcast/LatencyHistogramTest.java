@@ -0,0 +1,37 @@
+package com.example.broadcast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreBucketUpperBounds() {
+        var histogram = new LatencyHistogram();
+        // 90 fast ones around 100 micros, 10 slow ones around 10 millis
+        IntStream.range(0, 90).forEach(i -> histogram.record(TimeUnit.MICROSECONDS.toNanos(100)));
+        IntStream.range(0, 10).forEach(i -> histogram.record(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        var snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100);
+        assertThat(snapshot.p50Micros()).isEqualTo(128);
+        assertThat(snapshot.p90Micros()).isEqualTo(128);
+        assertThat(snapshot.p99Micros()).isEqualTo(16_384);
+        assertThat(snapshot.maxMicros()).isEqualTo(10_000);
+        assertThat(snapshot.buckets().get(128L)).isEqualTo(90);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        var snapshot = new LatencyHistogram().snapshot();
+
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.p99Micros()).isZero();
+        assertThat(snapshot.buckets()).isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.broadcast;
+
+import com.example.chat.TestOutboundSseEvent;
+import com.example.chat.TestSseEventSink;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplayingSseEventSinkTest {
+
+    @Test
+    void testLiveEventsWaitForTheReplay() {
+        var delegate = new TestSseEventSink(true);
+        var sink = new ReplayingSseEventSink(delegate);
+
+        // "3" is published while the missed events are read, it is delivered once
+        sink.send(TestOutboundSseEvent.of("3", "message"));
+        sink.send(TestOutboundSseEvent.of("4", "message"));
+        assertThat(delegate.received.get()).isZero();
+
+        sink.replay(List.of(TestOutboundSseEvent.of("2", "message"), TestOutboundSseEvent.of("3", "message")), 3);
+        sink.send(TestOutboundSseEvent.of("3", "message"));
+        sink.send(TestOutboundSseEvent.of("5", "message"));
+
+        assertThat(delegate.events).extracting(OutboundSseEvent::getId).containsExactly("2", "3", "4", "5");
+    }
+
+    @Test
+    void testEventsWithoutIdAreNotSkipped() {
+        var delegate = new TestSseEventSink(true);
+        var sink = new ReplayingSseEventSink(delegate);
+        sink.replay(List.of(), 10);
+
+        sink.send(TestOutboundSseEvent.of(null, "error"));
+
+        assertThat(delegate.received.get()).isEqualTo(1);
+    }
+}
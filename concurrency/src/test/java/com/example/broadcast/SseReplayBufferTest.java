@@ -0,0 +1,51 @@
+package com.example.broadcast;
+
+import com.example.chat.TestOutboundSseEvent;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseReplayBufferTest {
+
+    SseReplayBuffer buffer = new SseReplayBuffer(8);
+
+    @Test
+    void testReplaySinceLastId() {
+        IntStream.range(0, 5).forEach(i -> append("message " + i));
+
+        assertThat(ids(buffer.since(2))).containsExactly(3L, 4L, 5L);
+        assertThat(buffer.since(5)).isEmpty();
+        assertThat(buffer.lastId()).isEqualTo(5);
+    }
+
+    @Test
+    void testOnlyTheMostRecentEventsAreKept() {
+        IntStream.range(0, 20).forEach(i -> append("message " + i));
+
+        assertThat(ids(buffer.since(0))).containsExactlyElementsOf(LongStream.rangeClosed(13, 20).boxed().toList());
+    }
+
+    @Test
+    void testConcurrentAppendsKeepIdsUniqueAndOrdered() throws Exception {
+        var buffer = new SseReplayBuffer(10_000);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 10_000).forEach(i -> executor.submit(() -> buffer.append(id -> TestOutboundSseEvent.of("" + id, "message"))));
+        }
+
+        assertThat(ids(buffer.since(0))).containsExactlyElementsOf(LongStream.rangeClosed(1, 10_000).boxed().toList());
+    }
+
+    private void append(String message) {
+        buffer.append(id -> TestOutboundSseEvent.of("" + id, message));
+    }
+
+    private static List<Long> ids(List<OutboundSseEvent> events) {
+        return events.stream().map(event -> Long.parseLong(event.getId())).toList();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedSseEventSinkTest {
+
+    SseSinkMetrics metrics = new SseSinkMetrics();
+    List<BoundedSseEventSink> evicted = new ArrayList<>();
+
+    @Test
+    void testFastSinkReceivesEverything() {
+        var delegate = new TestSseEventSink(true);
+        var sink = new BoundedSseEventSink(delegate, 4, OverflowPolicy.DISCONNECT, metrics, evicted::add);
+
+        IntStream.range(0, 10).forEach(i -> sink.send(TestOutboundSseEvent.of("" + i, "message")));
+
+        assertThat(delegate.received.get()).isEqualTo(10);
+        assertThat(sink.queueDepth()).isZero();
+        assertThat(metrics.queuedEvents()).isZero();
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void testDropOldest() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 3, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+
+        // the first event is in flight, the remaining 9 compete for 3 slots
+        IntStream.range(0, 10).forEach(i -> sink.send(TestOutboundSseEvent.of("" + i, "message")));
+        assertThat(sink.queueDepth()).isEqualTo(3);
+        assertThat(metrics.droppedEvents()).isEqualTo(6);
+
+        delegate.completeAll();
+        assertThat(delegate.sentIds()).containsExactly("0", "7", "8", "9");
+        assertThat(metrics.queuedEvents()).isZero();
+    }
+
+    @Test
+    void testDropNewest() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 3, OverflowPolicy.DROP_NEWEST, metrics, evicted::add);
+
+        IntStream.range(0, 10).forEach(i -> sink.send(TestOutboundSseEvent.of("" + i, "message")));
+        assertThat(metrics.droppedEvents()).isEqualTo(6);
+
+        delegate.completeAll();
+        assertThat(delegate.sentIds()).containsExactly("0", "1", "2", "3");
+    }
+
+    @Test
+    void testDisconnectOnOverflow() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 3, OverflowPolicy.DISCONNECT, metrics, evicted::add);
+
+        IntStream.range(0, 5).forEach(i -> sink.send(TestOutboundSseEvent.of("" + i, "message")));
+
+        assertThat(evicted).containsExactly(sink);
+        assertThat(sink.isClosed()).isTrue();
+        assertThat(delegate.isClosed()).isTrue();
+        assertThat(metrics.evictions()).isEqualTo(1);
+        assertThat(metrics.queuedEvents()).isZero();
+        assertThat(sink.send(TestOutboundSseEvent.of("6", "message")).toCompletableFuture())
+                .isCompletedExceptionally();
+    }
+
+    @Test
+    void testResumeReplaysMissedEventsBeforeBufferedOnes() {
+        var delegate = new TestSseEventSink(true);
+        var sink = new BoundedSseEventSink(delegate, 10, OverflowPolicy.DISCONNECT, metrics, evicted::add);
+
+        sink.pause();
+        // live events published while the missed ones are read, "3" is both live and replayed
+        sink.send(TestOutboundSseEvent.of("3", "message"));
+        sink.send(TestOutboundSseEvent.of("4", "message"));
+        assertThat(delegate.received.get()).isZero();
+
+        sink.resume(List.of(TestOutboundSseEvent.of("2", "message"), TestOutboundSseEvent.of("3", "message")));
+
+        assertThat(delegate.events).extracting(OutboundSseEvent::getId).containsExactly("2", "3", "4");
+        assertThat(metrics.queuedEvents()).isZero();
+    }
+
+    @Test
+    void testTrackedEventCompletesOnceWritten() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 3, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+
+        sink.send(TestOutboundSseEvent.of("1", "message"));
+        var written = sink.sendTracked(TestOutboundSseEvent.of("2", "heartbeat")).toCompletableFuture();
+        assertThat(written.isDone()).isFalse();
+
+        delegate.completeAll();
+        assertThat(written.isDone()).isTrue();
+        assertThat(written.isCompletedExceptionally()).isFalse();
+    }
+
+    @Test
+    void testTrackedEventIsRejectedWhenQueueIsFull() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 2, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+
+        IntStream.range(0, 3).forEach(i -> sink.send(TestOutboundSseEvent.of("" + i, "message")));
+
+        assertThat(sink.sendTracked(TestOutboundSseEvent.of("3", "heartbeat")).toCompletableFuture())
+                .isCompletedExceptionally();
+        assertThat(metrics.droppedEvents()).isZero();
+    }
+
+    @Test
+    void testDroppedTrackedEventFailsAndTheSinkStaysOpen() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 2, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+
+        sink.send(TestOutboundSseEvent.of("1", "message"));
+        var dropped = sink.sendTracked(TestOutboundSseEvent.of("2", "heartbeat")).toCompletableFuture();
+        // a burst pushes the queued heartbeat out
+        sink.send(TestOutboundSseEvent.of("3", "message"));
+        sink.send(TestOutboundSseEvent.of("4", "message"));
+
+        assertThat(dropped.isCompletedExceptionally()).isTrue();
+        assertThat(sink.isClosed()).isFalse();
+        assertThat(evicted).isEmpty();
+
+        // once the client catches up, the next heartbeat is tracked and written
+        delegate.completeAll();
+        var written = sink.sendTracked(TestOutboundSseEvent.of("5", "heartbeat")).toCompletableFuture();
+        delegate.completeAll();
+        assertThat(written.isDone()).isTrue();
+        assertThat(written.isCompletedExceptionally()).isFalse();
+        assertThat(delegate.sentIds()).containsExactly("1", "3", "4", "5");
+    }
+
+    @Test
+    void testEvictWhenSendFails() {
+        var delegate = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 3, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+
+        sink.send(TestOutboundSseEvent.of("1", "message"));
+        sink.send(TestOutboundSseEvent.of("2", "message"));
+        delegate.failNext();
+
+        assertThat(evicted).containsExactly(sink);
+        assertThat(metrics.evictions()).isEqualTo(1);
+        assertThat(metrics.queuedEvents()).isZero();
+    }
+
+    @Test
+    void testMemoryStaysBoundedWithMixedSpeedSubscribers() {
+        int capacity = 16;
+        var slow = new ArrayList<StalledSseEventSink>();
+        var sinks = IntStream.range(0, 10_000)
+                .mapToObj(i -> {
+                    SseEventSink delegate;
+                    if (i % 2 == 0) {
+                        delegate = new TestSseEventSink();
+                    } else {
+                        var stalled = new StalledSseEventSink();
+                        slow.add(stalled);
+                        delegate = stalled;
+                    }
+                    return new BoundedSseEventSink(delegate, capacity, OverflowPolicy.DROP_OLDEST, metrics, evicted::add);
+                })
+                .toList();
+
+        IntStream.range(0, 100).forEach(i -> {
+            var event = TestOutboundSseEvent.of("" + i, "message");
+            sinks.forEach(sink -> sink.send(event));
+        });
+
+        // fast subscribers are drained, slow subscribers never hold more than the capacity
+        assertThat(metrics.queuedEvents()).isEqualTo((long) slow.size() * capacity);
+        assertThat(sinks).allMatch(sink -> sink.queueDepth() <= capacity);
+        assertThat(slow).allMatch(sink -> sink.inFlight.size() == 1);
+    }
+
+    // A sink whose writes never complete until told so.
+    static class StalledSseEventSink implements SseEventSink {
+        final Queue<CompletableFuture<Void>> inFlight = new ConcurrentLinkedQueue<>();
+        final List<OutboundSseEvent> sent = new ArrayList<>();
+        volatile boolean closed;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            sent.add(event);
+            var stage = new CompletableFuture<Void>();
+            inFlight.add(stage);
+            return stage;
+        }
+
+        void completeAll() {
+            CompletableFuture<Void> stage;
+            while ((stage = inFlight.poll()) != null) {
+                stage.complete(null);
+            }
+        }
+
+        void failNext() {
+            inFlight.remove().completeExceptionally(new IllegalStateException("broken pipe"));
+        }
+
+        List<String> sentIds() {
+            return sent.stream().map(OutboundSseEvent::getId).toList();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ChatClusterBridgeTest {
+
+    RedisStandIn redis;
+    RedisClient redisClient;
+    ChatMessageCodec codec = new BinaryChatMessageCodec(null);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new RedisStandIn();
+        redisClient = RedisClient.create(redis.uri());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redisClient.shutdown();
+        redis.close();
+    }
+
+    @Test
+    void testMessagesReachTheSinksOfAllNodes() {
+        try (var first = new Node(); var second = new Node()) {
+            first.send(ChatMessage.of("hello from the first node"));
+            second.send(ChatMessage.of("hello from the second node"));
+            first.send(ChatMessage.of("bye from the first node"));
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+                assertThat(first.sink.received.get()).isEqualTo(3);
+                assertThat(second.sink.received.get()).isEqualTo(3);
+            });
+            // each message is delivered once, the echo of a node's own messages is skipped
+            assertThat(first.sink.events).extracting(event -> event.getData())
+                    .containsExactlyInAnyOrder("hello from the first node", "hello from the second node", "bye from the first node");
+            await().atMost(Duration.ofSeconds(5)).until(() -> first.bridge.skippedCount() == 2 && second.bridge.skippedCount() == 1);
+            assertThat(first.bridge.receivedCount()).isEqualTo(1);
+            assertThat(second.bridge.receivedCount()).isEqualTo(2);
+            assertThat(redis.size(ChatHistory.KEY)).isEqualTo(3);
+        }
+    }
+
+    // the parts of ChatService involved in sending and fanning out a message, without CDI.
+    class Node implements AutoCloseable {
+        final TestSseEventSink sink = new TestSseEventSink(true);
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        final SseFanout fanout = new SseFanout(executor, () -> List.of(sink), Duration.ZERO, 100);
+        final RedisConnectionPools<String, ChatMessage> pools = new RedisConnectionPools<>(
+                redisClient,
+                new ChatMessageRedisCodec(codec),
+                new RedisConnectionPools.Config(1, Duration.ofSeconds(1), 1)
+        );
+        final ChatHistory history = new ChatHistory(pools, null, 100);
+        final ChatClusterBridge bridge = new ChatClusterBridge(redisClient, codec, "chat:test", this::deliver);
+
+        void send(ChatMessage message) {
+            var entry = new ChatHistoryEntry(history.append(ChatRooms.GLOBAL, message).block(), message);
+            var roomMessage = new ChatRoomMessage(ChatRooms.GLOBAL, entry);
+            deliver(roomMessage);
+            bridge.publish(roomMessage);
+        }
+
+        void deliver(ChatRoomMessage message) {
+            fanout.publish(TestOutboundSseEvent.of(message.entry().id(), message.entry().message().body()));
+        }
+
+        @Override
+        public void close() {
+            bridge.close();
+            pools.close();
+            executor.shutdownNow();
+        }
+    }
+}
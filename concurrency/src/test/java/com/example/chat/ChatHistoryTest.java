@@ -0,0 +1,155 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatHistoryTest {
+
+    RedisStandIn redis;
+    RedisClient redisClient;
+    RedisConnectionPools<String, ChatMessage> pools;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new RedisStandIn();
+        redisClient = RedisClient.create(redis.uri());
+        // only binary values are written here, the json fallback is never needed.
+        pools = new RedisConnectionPools<>(
+                redisClient,
+                new ChatMessageRedisCodec(new BinaryChatMessageCodec(null)),
+                new RedisConnectionPools.Config(2, Duration.ofSeconds(1), 1)
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pools.close();
+        redisClient.shutdown();
+        redis.close();
+    }
+
+    @Test
+    void testReadsAreNonDestructive() {
+        var history = new ChatHistory(pools, null, 100);
+        IntStream.range(0, 3).forEach(i -> history.append(ChatRooms.GLOBAL, ChatMessage.of("message " + i)).block());
+
+        var first = history.before(ChatRooms.GLOBAL, null, 10);
+        var second = history.before(ChatRooms.GLOBAL, null, 10);
+
+        assertThat(first).extracting(entry -> entry.message().body())
+                .containsExactly("message 2", "message 1", "message 0");
+        assertThat(second).isEqualTo(first);
+        assertThat(redis.size(ChatHistory.KEY)).isEqualTo(3);
+    }
+
+    @Test
+    void testPagingWithCursor() {
+        var history = new ChatHistory(pools, null, 100);
+        IntStream.range(0, 25).forEach(i -> history.append(ChatRooms.GLOBAL, ChatMessage.of("message " + i)).block());
+
+        var bodies = new ArrayList<String>();
+        var pages = 0;
+        String before = null;
+        do {
+            var page = history.page(ChatRooms.GLOBAL, before, 10);
+            page.entries().forEach(entry -> bodies.add(entry.message().body()));
+            before = page.next();
+            pages++;
+        } while (before != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(bodies).containsExactlyElementsOf(
+                IntStream.iterate(24, i -> i >= 0, i -> i - 1).mapToObj(i -> "message " + i).toList()
+        );
+    }
+
+    @Test
+    void testAfterReturnsNewerEntriesOldestFirst() {
+        var history = new ChatHistory(pools, null, 100);
+        List<String> ids = IntStream.range(0, 5)
+                .mapToObj(i -> history.append(ChatRooms.GLOBAL, ChatMessage.of("message " + i)).block())
+                .toList();
+
+        assertThat(history.after(ChatRooms.GLOBAL, ids.get(1), 2)).extracting(ChatHistoryEntry::id)
+                .containsExactly(ids.get(2), ids.get(3));
+        assertThat(history.after(ChatRooms.GLOBAL, ids.getLast(), 10)).isEmpty();
+    }
+
+    @Test
+    void testRoomsHaveTheirOwnHistory() {
+        var history = new ChatHistory(pools, null, 100);
+        history.append(ChatRooms.GLOBAL, ChatMessage.of("to everyone")).block();
+        history.append("kitchen", ChatMessage.of("to the kitchen")).block();
+
+        assertThat(history.before("kitchen", null, 10)).extracting(entry -> entry.message().body())
+                .containsExactly("to the kitchen");
+        assertThat(redis.size(ChatHistory.KEY)).isEqualTo(1);
+        assertThat(redis.size("chat:rooms:kitchen:history")).isEqualTo(1);
+    }
+
+    @Test
+    void testAppendTrimsHistory() {
+        var history = new ChatHistory(pools, null, 5);
+        IntStream.range(0, 8).forEach(i -> history.append(ChatRooms.GLOBAL, ChatMessage.of("message " + i)).block());
+
+        assertThat(redis.size(ChatHistory.KEY)).isEqualTo(5);
+        assertThat(history.before(ChatRooms.GLOBAL, null, 1)).extracting(entry -> entry.message().body())
+                .containsExactly("message 7");
+    }
+
+    @Test
+    void testStreamReadsInBatchesAsTheConsumerAsksForMore() {
+        var history = new ChatHistory(pools, null, 100);
+        // run with -Dchat.history.streamTestEntries=1000000 for a long history
+        int total = Integer.getInteger("chat.history.streamTestEntries", 10_000);
+        int batchSize = 500;
+        var encoded = new BinaryChatMessageCodec(null).encode(ChatMessage.of("hello"));
+        var bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        redis.fill(ChatHistory.KEY, total, List.of(ChatHistory.FIELD, new String(bytes, StandardCharsets.ISO_8859_1)));
+
+        long commandsBefore = redis.commands.sum();
+        long count = 0;
+        long previous = Long.MAX_VALUE;
+        long maxReadAhead = 0;
+        try (var entries = history.stream(ChatRooms.GLOBAL, total, batchSize).toStream(batchSize)) {
+            for (var iterator = entries.iterator(); iterator.hasNext(); ) {
+                var entry = iterator.next();
+                long millis = Long.parseLong(entry.id().substring(0, entry.id().indexOf('-')));
+                assertThat(millis).isLessThan(previous);
+                previous = millis;
+                count++;
+                // entries read from redis but not consumed yet
+                long read = (redis.commands.sum() - commandsBefore) * batchSize;
+                maxReadAhead = Math.max(maxReadAhead, read - count);
+            }
+        }
+
+        assertThat(count).isEqualTo(total);
+        assertThat(previous).isEqualTo(1);
+        assertThat(redis.commands.sum() - commandsBefore).isEqualTo(total / batchSize);
+        assertThat(maxReadAhead).isLessThanOrEqualTo(3L * batchSize);
+    }
+
+    @Test
+    void testStreamStopsAtTheLimit() {
+        var history = new ChatHistory(pools, null, 100);
+        IntStream.range(0, 12).forEach(i -> history.append(ChatRooms.GLOBAL, ChatMessage.of("message " + i)).block());
+        long commandsBefore = redis.commands.sum();
+
+        assertThat(history.stream(ChatRooms.GLOBAL, 7, 5).map(entry -> entry.message().body()).collectList().block())
+                .containsExactly("message 11", "message 10", "message 9", "message 8", "message 7", "message 6", "message 5");
+        assertThat(redis.commands.sum() - commandsBefore).isEqualTo(2);
+        assertThat(history.stream(ChatRooms.GLOBAL, 100, 5).count().block()).isEqualTo(12);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.chat;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbConfig;
+import jakarta.json.bind.config.PropertyNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMessageCodecTest {
+    private static final Logger LOGGER = Logger.getLogger(ChatMessageCodecTest.class.getName());
+
+    Jsonb jsonb;
+    ChatMessageCodec json;
+    ChatMessageCodec binary;
+
+    @BeforeEach
+    void setUp() {
+        // the same config as JsonbProducer
+        jsonb = JsonbBuilder.create(new JsonbConfig()
+                .withPropertyNamingStrategy(PropertyNamingStrategy.LOWER_CASE_WITH_UNDERSCORES)
+                .withFormatting(true)
+                .withNullValues(false));
+        json = new JsonChatMessageCodec(jsonb);
+        binary = new BinaryChatMessageCodec(json);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Test
+    void testBinaryRoundTrip() {
+        var message = new ChatMessage("héllo wörld 😀", LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789));
+
+        assertThat(binary.decode(binary.encode(message))).isEqualTo(message);
+    }
+
+    @Test
+    void testBinaryRoundTripBeforeEpochAndNullBody() {
+        var message = new ChatMessage(null, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+
+        assertThat(binary.decode(binary.encode(message))).isEqualTo(message);
+    }
+
+    @Test
+    void testBinaryFallsBackToJson() {
+        var message = new ChatMessage("stored as json", LocalDateTime.of(2024, 1, 1, 8, 0));
+
+        assertThat(binary.decode(json.encode(message))).isEqualTo(message);
+    }
+
+    @Test
+    void testEncodeDecodeThroughput() {
+        var message = ChatMessage.of("a typical chat message, not too short and not too long");
+        int iterations = 200_000;
+        for (var codec : new ChatMessageCodec[]{json, binary}) {
+            // warm up
+            run(codec, message, iterations);
+
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            run(codec, message, iterations);
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            LOGGER.log(Level.INFO, "{0}: {1} bytes/message, {2} round trips/s, {3} allocated bytes/round trip",
+                    new Object[]{
+                            codec.getClass().getSimpleName(),
+                            codec.encode(message).remaining(),
+                            iterations * 1_000_000_000L / elapsed,
+                            allocated / iterations
+                    });
+        }
+        assertThat(binary.encode(message).remaining()).isLessThan(json.encode(message).remaining());
+    }
+
+    private static void run(ChatMessageCodec codec, ChatMessage message, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            assertThat(codec.decode(codec.encode(message)).body()).isEqualTo(message.body());
+        }
+    }
+
+    private static long allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ChatRoomsTest {
+    private static final Logger LOGGER = Logger.getLogger(ChatRoomsTest.class.getName());
+
+    ScheduledExecutorService executor;
+    SseSinkMetrics metrics = new SseSinkMetrics();
+
+    @BeforeEach
+    void setUp() {
+        // sized like the managed executor, which runs up to 10 tasks at a time
+        executor = Executors.newScheduledThreadPool(10, Thread.ofVirtual().factory());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testMessagesOnlyReachTheirRoom() {
+        var rooms = new ChatRooms(executor, Duration.ZERO, 100);
+        var kitchen = new TestSseEventSink(true);
+        var garden = new TestSseEventSink(true);
+        rooms.join("kitchen", UUID.randomUUID(), bounded(kitchen));
+        rooms.join("garden", UUID.randomUUID(), bounded(garden));
+
+        assertThat(rooms.publish("kitchen", TestOutboundSseEvent.of("1", "dinner is ready"))).isTrue();
+        assertThat(rooms.publish("attic", TestOutboundSseEvent.of("2", "anybody here?"))).isFalse();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> kitchen.received.get() == 1);
+        assertThat(garden.received.get()).isZero();
+        assertThat(rooms.roomCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testEmptyRoomsAreDropped() {
+        var rooms = new ChatRooms(executor, Duration.ZERO, 100);
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var firstSink = bounded(new TestSseEventSink());
+        rooms.join("kitchen", first, firstSink);
+        rooms.join("kitchen", second, bounded(new TestSseEventSink()));
+
+        assertThat(rooms.leave("kitchen", first)).isSameAs(firstSink);
+        assertThat(rooms.isEmpty("kitchen")).isFalse();
+        assertThat(rooms.leave("kitchen", first)).isNull();
+
+        rooms.leave("kitchen", second);
+        assertThat(rooms.isEmpty("kitchen")).isTrue();
+        assertThat(rooms.roomCount()).isZero();
+    }
+
+    @Test
+    void testEveryMemberOfEveryRoomReceivesItsMessages() {
+        deliverToAllRooms(20, 5);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testDeliveryLatencyWith1000RoomsOf50Users() {
+        deliverToAllRooms(1_000, 50);
+    }
+
+    private void deliverToAllRooms(int roomCount, int usersPerRoom) {
+        var rooms = new ChatRooms(executor, Duration.ofMillis(1), 500);
+        var latencies = new ConcurrentLinkedQueue<Long>();
+        IntStream.range(0, roomCount).forEach(room ->
+                IntStream.range(0, usersPerRoom).forEach(user ->
+                        rooms.join("room-" + room, UUID.randomUUID(), bounded(new LatencySink(latencies)))
+                )
+        );
+
+        // warm up
+        publishToAllRooms(rooms, roomCount, latencies, roomCount * usersPerRoom);
+        latencies.clear();
+
+        long start = System.nanoTime();
+        publishToAllRooms(rooms, roomCount, latencies, roomCount * usersPerRoom);
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        LOGGER.log(Level.INFO, "rooms: {0}, users per room: {1}, all delivered in {2} ms, latency p50: {3} micros, p99: {4} micros, max: {5} micros",
+                new Object[]{roomCount, usersPerRoom, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        percentile(sorted, 0.50), percentile(sorted, 0.99), TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length - 1])});
+
+        // each message is written to the sinks of its room only, not to the sinks of all the rooms
+        assertThat(rooms.deliveryCount()).isEqualTo(2L * roomCount * usersPerRoom);
+        assertThat(Arrays.stream(sorted).allMatch(latency -> latency >= 0)).isTrue();
+    }
+
+    // one message per room, the publishing time is the payload
+    private static void publishToAllRooms(ChatRooms rooms, int roomCount, ConcurrentLinkedQueue<Long> latencies, int expected) {
+        IntStream.range(0, roomCount).forEach(room ->
+                rooms.publish("room-" + room, TestOutboundSseEvent.of("" + room, "" + System.nanoTime()))
+        );
+        await().atMost(Duration.ofSeconds(30)).until(() -> latencies.size() == expected);
+    }
+
+    private BoundedSseEventSink bounded(SseEventSink sink) {
+        return new BoundedSseEventSink(sink, 16, OverflowPolicy.DROP_OLDEST, metrics, evicted -> {
+        });
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(sorted[(int) Math.ceil(percentile * sorted.length) - 1]);
+    }
+
+    // records the time between publishing and writing each event.
+    record LatencySink(ConcurrentLinkedQueue<Long> latencies) implements SseEventSink {
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            latencies.add(System.nanoTime() - Long.parseLong((String) event.getData()));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisConnectionPoolsTest {
+
+    RedisStandIn redis;
+    RedisClient redisClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new RedisStandIn();
+        redisClient = RedisClient.create(redis.uri());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        redisClient.shutdown();
+        redis.close();
+    }
+
+    @Test
+    void testBlockingConnectionIsReturnedAfterUse() {
+        try (var pools = new RedisConnectionPools<>(redisClient, StringCodec.UTF8, new RedisConnectionPools.Config(2, Duration.ofSeconds(1), 1))) {
+            Long pushed = pools.sync(commands -> commands.lpush("chat", "a", "b"));
+            List<String> popped = pools.sync(commands -> commands.lpop("chat", 10));
+
+            assertThat(pushed).isEqualTo(2);
+            assertThat(popped).containsExactly("b", "a");
+            assertThat(pools.availableBlocking()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testBorrowTimesOutWhenExhausted() throws Exception {
+        try (var pools = new RedisConnectionPools<>(redisClient, StringCodec.UTF8, new RedisConnectionPools.Config(1, Duration.ofMillis(100), 1))) {
+            var borrowed = new CountDownLatch(1);
+            var release = new CountDownLatch(1);
+            var holder = Thread.ofVirtual().start(() -> pools.sync(commands -> {
+                borrowed.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+            borrowed.await();
+
+            assertThatThrownBy(() -> pools.sync(commands -> commands.llen("chat")))
+                    .isInstanceOf(RedisException.class);
+
+            release.countDown();
+            holder.join();
+            assertThat(pools.availableBlocking()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testNonBlockingCommands() throws Exception {
+        try (var pools = new RedisConnectionPools<>(redisClient, StringCodec.UTF8, new RedisConnectionPools.Config(1, Duration.ofSeconds(1), 2))) {
+            pools.reactive().lpush("chat", "reactive").block();
+            pools.async().lpush("chat", "async").get(1, TimeUnit.SECONDS);
+
+            assertThat(redis.size("chat")).isEqualTo(2);
+        }
+    }
+}
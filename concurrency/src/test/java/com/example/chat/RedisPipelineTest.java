@@ -0,0 +1,77 @@
+package com.example.chat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisPipelineTest {
+    private static final Logger LOGGER = Logger.getLogger(RedisPipelineTest.class.getName());
+    private static final int SENDS = 10_000;
+
+    RedisStandIn redis;
+    RedisClient redisClient;
+    ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new RedisStandIn();
+        redisClient = RedisClient.create(redis.uri());
+        executor = Executors.newScheduledThreadPool(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        redisClient.shutdown();
+        redis.close();
+    }
+
+    @Test
+    void testConcurrentPushesAreBatched() {
+        try (var pipeline = new RedisPipeline<>(redisClient, StringCodec.UTF8, executor, Duration.ofNanos(200_000))) {
+            long elapsed = concurrentPushes(i -> pipeline.execute(commands -> commands.lpush("pipelined", "message " + i)));
+
+            assertThat(redis.size("pipelined")).isEqualTo(SENDS);
+            assertThat(pipeline.flushCount()).isLessThan(SENDS);
+            LOGGER.log(Level.INFO, "pipelined: {0} LPUSHs in {1} ms, {2} flushes, {3} network reads",
+                    new Object[]{SENDS, elapsed, pipeline.flushCount(), redis.networkReads.sum()});
+        }
+    }
+
+    @Test
+    void testConcurrentPushesWithAutoFlush() {
+        try (var pools = new RedisConnectionPools<>(redisClient, StringCodec.UTF8, new RedisConnectionPools.Config(1, Duration.ofSeconds(1), 1))) {
+            long elapsed = concurrentPushes(i -> pools.async().lpush("auto-flush", "message " + i));
+
+            assertThat(redis.size("auto-flush")).isEqualTo(SENDS);
+            LOGGER.log(Level.INFO, "auto flush: {0} LPUSHs in {1} ms, {2} network reads",
+                    new Object[]{SENDS, elapsed, redis.networkReads.sum()});
+        }
+    }
+
+    private long concurrentPushes(IntFunction<CompletionStage<Long>> push) {
+        long start = System.nanoTime();
+        try (var senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            var results = IntStream.range(0, SENDS)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> push.apply(i), senders)
+                            .thenCompose(stage -> stage))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(results).join();
+        }
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.chat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// A tiny in-memory RESP2 server which understands the handful of list, stream and pub/sub commands used by the chat,
+// good enough to run Lettuce against in unit tests without a real Redis.
+// Values are read and written as ISO-8859-1, so binary values survive the round-trip.
+class RedisStandIn implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RedisStandIn.class.getName());
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Deque<String>> lists = new HashMap<>();
+    private final Map<String, NavigableMap<StreamId, List<String>>> streams = new HashMap<>();
+    private StreamId lastStreamId = new StreamId(0, 0);
+    private final List<Socket> clients = new ArrayList<>();
+    private final Map<String, List<OutputStream>> subscribers = new HashMap<>();
+
+    // number of commands, and number of reads from the network needed to receive them.
+    final LongAdder commands = new LongAdder();
+    final LongAdder networkReads = new LongAdder();
+
+    RedisStandIn() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("redis-stand-in").start(this::accept);
+    }
+
+    String uri() {
+        return "redis://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                // large replies go out in several segments, don't let the last one wait for a delayed ack
+                socket.setTcpNoDelay(true);
+                synchronized (clients) {
+                    clients.add(socket);
+                }
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                LOGGER.log(Level.FINEST, "stand-in stopped accepting: {0}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            var in = new BufferedInputStream(new FilterInputStream(socket.getInputStream()) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    networkReads.increment();
+                    return super.read(b, off, len);
+                }
+            });
+            var out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                if (in.available() == 0) {
+                    synchronized (out) {
+                        out.flush();
+                    }
+                }
+                List<String> command = readCommand(in);
+                commands.increment();
+                // pushed pub/sub messages are written to the same stream from other connections
+                synchronized (out) {
+                    execute(command, out);
+                }
+            }
+        } catch (EOFException e) {
+            // client disconnected
+        } catch (IOException e) {
+            LOGGER.log(Level.FINEST, "stand-in connection closed: {0}", e.getMessage());
+        }
+    }
+
+    private void execute(List<String> command, OutputStream out) throws IOException {
+        String name = command.getFirst().toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "CLIENT", "SELECT" -> simple(out, "OK");
+            case "LPUSH", "RPUSH" -> {
+                long size;
+                synchronized (lists) {
+                    var list = lists.computeIfAbsent(command.get(1), k -> new ArrayDeque<>());
+                    for (String value : command.subList(2, command.size())) {
+                        if (name.equals("LPUSH")) {
+                            list.addFirst(value);
+                        } else {
+                            list.addLast(value);
+                        }
+                    }
+                    size = list.size();
+                }
+                integer(out, size);
+            }
+            case "LPOP" -> {
+                synchronized (lists) {
+                    var list = lists.getOrDefault(command.get(1), new ArrayDeque<>());
+                    if (command.size() == 2) {
+                        bulk(out, list.pollFirst());
+                    } else {
+                        int count = Integer.parseInt(command.get(2));
+                        var popped = new ArrayList<String>();
+                        while (popped.size() < count && !list.isEmpty()) {
+                            popped.add(list.pollFirst());
+                        }
+                        array(out, list.isEmpty() && popped.isEmpty() ? null : popped);
+                    }
+                }
+            }
+            case "LRANGE" -> {
+                synchronized (lists) {
+                    var list = new ArrayList<>(lists.getOrDefault(command.get(1), new ArrayDeque<>()));
+                    int start = index(Integer.parseInt(command.get(2)), list.size());
+                    int stop = Math.min(index(Integer.parseInt(command.get(3)), list.size()), list.size() - 1);
+                    array(out, start > stop ? List.of() : list.subList(start, stop + 1));
+                }
+            }
+            case "LLEN" -> {
+                synchronized (lists) {
+                    integer(out, lists.getOrDefault(command.get(1), new ArrayDeque<>()).size());
+                }
+            }
+            case "DEL" -> {
+                long removed = 0;
+                synchronized (lists) {
+                    for (String key : command.subList(1, command.size())) {
+                        removed += lists.remove(key) == null && streams.remove(key) == null ? 0 : 1;
+                    }
+                }
+                integer(out, removed);
+            }
+            case "XADD" -> {
+                // XADD key [MAXLEN [~|=] n] * field value [field value ...]
+                int i = 2;
+                long maxLength = Long.MAX_VALUE;
+                if (command.get(i).equalsIgnoreCase("MAXLEN")) {
+                    i++;
+                    if (command.get(i).equals("~") || command.get(i).equals("=")) {
+                        i++;
+                    }
+                    maxLength = Long.parseLong(command.get(i++));
+                }
+                if (!command.get(i++).equals("*")) {
+                    error(out, "ERR only auto generated ids are supported");
+                    return;
+                }
+                StreamId id;
+                synchronized (lists) {
+                    long now = System.currentTimeMillis();
+                    id = now > lastStreamId.millis()
+                            ? new StreamId(now, 0)
+                            : new StreamId(lastStreamId.millis(), lastStreamId.sequence() + 1);
+                    lastStreamId = id;
+                    var stream = streams.computeIfAbsent(command.get(1), k -> new TreeMap<>());
+                    stream.put(id, List.copyOf(command.subList(i, command.size())));
+                    while (stream.size() > maxLength) {
+                        stream.pollFirstEntry();
+                    }
+                }
+                bulk(out, id.toString());
+            }
+            case "XRANGE", "XREVRANGE" -> {
+                // XRANGE key start end [COUNT n], XREVRANGE key end start [COUNT n]
+                boolean reverse = name.equals("XREVRANGE");
+                String start = command.get(reverse ? 3 : 2);
+                String end = command.get(reverse ? 2 : 3);
+                int count = command.size() > 5 ? Integer.parseInt(command.get(5)) : Integer.MAX_VALUE;
+                var entries = new ArrayList<Map.Entry<StreamId, List<String>>>();
+                synchronized (lists) {
+                    NavigableMap<StreamId, List<String>> stream = streams.getOrDefault(command.get(1), new TreeMap<>());
+                    if (!start.equals("-")) {
+                        boolean inclusive = !start.startsWith("(");
+                        stream = stream.tailMap(StreamId.parse(inclusive ? start : start.substring(1), 0), inclusive);
+                    }
+                    if (!end.equals("+")) {
+                        boolean inclusive = !end.startsWith("(");
+                        stream = stream.headMap(StreamId.parse(inclusive ? end : end.substring(1), Long.MAX_VALUE), inclusive);
+                    }
+                    for (var entry : reverse ? stream.descendingMap().entrySet() : stream.entrySet()) {
+                        if (entries.size() == count) {
+                            break;
+                        }
+                        entries.add(entry);
+                    }
+                }
+                out.write(("*" + entries.size() + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                for (var entry : entries) {
+                    out.write("*2\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    bulk(out, entry.getKey().toString());
+                    array(out, entry.getValue());
+                }
+            }
+            case "SUBSCRIBE" -> {
+                for (String channel : command.subList(1, command.size())) {
+                    synchronized (subscribers) {
+                        subscribers.computeIfAbsent(channel, k -> new ArrayList<>()).add(out);
+                    }
+                    out.write("*3\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    bulk(out, "subscribe");
+                    bulk(out, channel);
+                    integer(out, 1);
+                }
+            }
+            case "PUBLISH" -> {
+                List<OutputStream> receivers;
+                synchronized (subscribers) {
+                    receivers = List.copyOf(subscribers.getOrDefault(command.get(1), List.of()));
+                }
+                int delivered = 0;
+                for (OutputStream receiver : receivers) {
+                    synchronized (receiver) {
+                        try {
+                            receiver.write("*3\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                            bulk(receiver, "message");
+                            bulk(receiver, command.get(1));
+                            bulk(receiver, command.get(2));
+                            receiver.flush();
+                            delivered++;
+                        } catch (IOException e) {
+                            // the subscriber is gone
+                        }
+                    }
+                }
+                integer(out, delivered);
+            }
+            // HELLO is answered with an error so that Lettuce falls back to RESP2
+            default -> error(out, "ERR unknown command '" + command.getFirst() + "'");
+        }
+    }
+
+    private record StreamId(long millis, long sequence) implements Comparable<StreamId> {
+        // a missing sequence defaults to `defaultSequence`, as Redis does for range bounds.
+        static StreamId parse(String id, long defaultSequence) {
+            int dash = id.indexOf('-');
+            if (dash < 0) {
+                return new StreamId(Long.parseLong(id), defaultSequence);
+            }
+            return new StreamId(Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1)));
+        }
+
+        @Override
+        public int compareTo(StreamId other) {
+            int result = Long.compare(millis, other.millis);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return millis + "-" + sequence;
+        }
+    }
+
+    private static int index(int index, int size) {
+        return index < 0 ? Math.max(size + index, 0) : index;
+    }
+
+    // appends `count` entries with the given fields straight to the stream, ids are `1-0`, `2-0`, ...
+    // Much faster than XADD over the wire when a test needs a long history.
+    void fill(String key, int count, List<String> fields) {
+        var entry = List.copyOf(fields);
+        synchronized (lists) {
+            var stream = streams.computeIfAbsent(key, k -> new TreeMap<>());
+            for (int i = 1; i <= count; i++) {
+                stream.put(new StreamId(i, 0), entry);
+            }
+            if (lastStreamId.compareTo(stream.lastKey()) < 0) {
+                lastStreamId = stream.lastKey();
+            }
+        }
+    }
+
+    int size(String key) {
+        synchronized (lists) {
+            if (streams.containsKey(key)) {
+                return streams.get(key).size();
+            }
+            return lists.getOrDefault(key, new ArrayDeque<>()).size();
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header.charAt(0) != '*') {
+            throw new IOException("inline commands are not supported: " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        var command = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] data = in.readNBytes(length);
+            in.readNBytes(2);
+            command.add(new String(data, StandardCharsets.ISO_8859_1));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(("+" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(("-" + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void bulk(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        byte[] data = value.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(("$" + data.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(data);
+        out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void array(OutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.write("*-1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        for (String value : values) {
+            bulk(out, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+}
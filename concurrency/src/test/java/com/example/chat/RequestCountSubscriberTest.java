@@ -0,0 +1,118 @@
+package com.example.chat;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.FlowAdapters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RequestCountSubscriberTest {
+
+    @Test
+    void testRequestsInBatches() {
+        var counter = new RequestCounter();
+        var requests = new ArrayList<Long>();
+
+        Flux.range(0, 10)
+                .doOnRequest(requests::add)
+                .subscribe(FlowAdapters.toSubscriber(counter.newSubscriber()));
+
+        var stats = counter.stats();
+        assertThat(stats.received()).isEqualTo(10);
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.activeSubscriptions()).isZero();
+        // never more than a batch is requested at a time
+        assertThat(requests.stream().allMatch(n -> n == RequestCountSubscriber.MAX_REQUESTS)).isTrue();
+        assertThat(stats.requested()).isEqualTo(12);
+    }
+
+    @Test
+    void testSecondSubscriptionIsCancelled() {
+        var counter = new RequestCounter();
+        var subscriber = counter.newSubscriber();
+        var cancelled = new AtomicBoolean();
+
+        subscriber.onSubscribe(new TestSubscription(new AtomicLong(), new AtomicBoolean()));
+        subscriber.onSubscribe(new TestSubscription(new AtomicLong(), cancelled));
+
+        assertThat(cancelled.get()).isTrue();
+        assertThat(counter.stats().subscriptions()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailureIsCountedOnce() {
+        var counter = new RequestCounter();
+
+        Mono.error(new IllegalStateException("redis is down"))
+                .subscribe(FlowAdapters.toSubscriber(counter.newSubscriber()));
+
+        var stats = counter.stats();
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.completed()).isZero();
+        assertThat(stats.activeSubscriptions()).isZero();
+    }
+
+    // ChatService.send subscribes a new subscriber to every append, thousands of them run at the same time.
+    @Test
+    void testParallelSends() {
+        int sends = 10_000;
+        var counter = new RequestCounter();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, sends).forEach(i -> executor.submit(() -> Mono.fromCallable(() -> "id-" + i)
+                    .subscribeOn(Schedulers.parallel())
+                    .subscribe(FlowAdapters.toSubscriber(counter.newSubscriber()))));
+        }
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> counter.stats().completed() == sends);
+        var stats = counter.stats();
+        assertThat(stats.subscriptions()).isEqualTo(sends);
+        assertThat(stats.received()).isEqualTo(sends);
+        assertThat(stats.requested()).isEqualTo(2L * sends);
+        assertThat(stats.failed()).isZero();
+        assertThat(stats.activeSubscriptions()).isZero();
+    }
+
+    // multi-item streams emitted from several threads, every stream keeps its own demand.
+    @Test
+    void testParallelStreams() {
+        int streams = 2_000;
+        int items = 25;
+        var counter = new RequestCounter();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, streams).forEach(i -> executor.submit(() -> Flux.range(0, items)
+                    .publishOn(Schedulers.parallel(), 1)
+                    .subscribe(FlowAdapters.toSubscriber(counter.newSubscriber()))));
+        }
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> counter.stats().completed() == streams);
+        var stats = counter.stats();
+        assertThat(stats.received()).isEqualTo((long) streams * items);
+        // 13 batches of 2 items per stream, the last one asked for the completion signal
+        assertThat(stats.requested()).isEqualTo(streams * 26L);
+    }
+
+    record TestSubscription(AtomicLong requested, AtomicBoolean cancelled) implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SseFanoutTest {
+    private static final Logger LOGGER = Logger.getLogger(SseFanoutTest.class.getName());
+
+    ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newScheduledThreadPool(0, Thread.ofVirtual().factory());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoOneFlush() {
+        var sinks = List.of(new TestSseEventSink(true), new TestSseEventSink(true), new TestSseEventSink(true));
+        // a window far longer than the burst, so a slow machine still publishes all of it within one window
+        var fanout = new SseFanout(executor, () -> List.copyOf(sinks), Duration.ofSeconds(1), 2);
+
+        IntStream.range(0, 5).forEach(i -> fanout.publish(TestOutboundSseEvent.of("" + i, "message " + i)));
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(sinks).allMatch(sink -> sink.received.get() == 5));
+        assertThat(fanout.flushCount()).isEqualTo(1);
+        assertThat(fanout.deliveryCount()).isEqualTo(15);
+
+        // events are shared, not copied per sink, and keep their publishing order
+        assertThat(sinks.get(0).events).containsExactlyElementsOf(sinks.get(2).events);
+        assertThat(sinks.get(0).events).extracting(OutboundSseEvent::getId)
+                .containsExactly("0", "1", "2", "3", "4");
+    }
+
+    @Test
+    void testBatchesReachEverySinkInOrder() throws Exception {
+        var release = new CountDownLatch(1);
+        var blocked = new CountDownLatch(1);
+        // the first sink is slow to write the first event, its shard is still running when the second batch comes
+        var slow = new TestSseEventSink(true) {
+            @Override
+            public CompletionStage<?> send(OutboundSseEvent event) {
+                if (event.getId().equals("1")) {
+                    blocked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.send(event);
+            }
+        };
+        var sinks = List.of(slow, new TestSseEventSink(true), new TestSseEventSink(true));
+        // several threads, a scheduled pool without core threads runs one task at a time
+        try (var parallel = Executors.newScheduledThreadPool(4, Thread.ofVirtual().factory())) {
+            var fanout = new SseFanout(parallel, () -> sinks, Duration.ZERO, 1);
+
+            fanout.publish(TestOutboundSseEvent.of("1", "first"));
+            blocked.await(10, TimeUnit.SECONDS);
+            fanout.publish(TestOutboundSseEvent.of("2", "second"));
+            // gives a concurrent second flush the time to overtake the blocked shard
+            Thread.sleep(100);
+            release.countDown();
+
+            await().atMost(Duration.ofSeconds(10)).until(() -> fanout.deliveryCount() == 6);
+            assertThat(sinks).allMatch(sink -> sink.events.stream().map(OutboundSseEvent::getId).toList().equals(List.of("1", "2")));
+            assertThat(fanout.flushCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testClosedSinksAreSkipped() {
+        var open = new TestSseEventSink();
+        var closed = new TestSseEventSink();
+        closed.close();
+        var fanout = new SseFanout(executor, () -> List.of(open, closed), Duration.ZERO, 10);
+
+        fanout.publish(TestOutboundSseEvent.of("1", "hello"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> open.received.get() == 1);
+        assertThat(closed.received.get()).isZero();
+    }
+
+    @Test
+    void testEveryMessageReachesEverySink() {
+        var sinks = IntStream.range(0, 1_000).mapToObj(i -> new TestSseEventSink()).toList();
+        var fanout = new SseFanout(executor, () -> sinks, Duration.ofMillis(5), 500);
+
+        IntStream.range(0, 100).forEach(i -> fanout.publish(TestOutboundSseEvent.of("" + i, "message " + i)));
+
+        await().atMost(Duration.ofSeconds(60)).until(() -> fanout.deliveryCount() == 100_000L);
+        assertThat(sinks).allMatch(sink -> sink.received.get() == 100);
+        assertThat(fanout.flushCount()).isLessThanOrEqualTo(100);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000})
+    @Tag("benchmark")
+    void testThroughput(int sinkCount) {
+        var sinks = IntStream.range(0, sinkCount).mapToObj(i -> new TestSseEventSink()).toList();
+        var fanout = new SseFanout(executor, () -> sinks, Duration.ofMillis(5), 500);
+        int messages = 100;
+
+        long start = System.nanoTime();
+        IntStream.range(0, messages).forEach(i -> fanout.publish(TestOutboundSseEvent.of("" + i, "message " + i)));
+        await().atMost(Duration.ofSeconds(60))
+                .pollInterval(Duration.ofMillis(5))
+                .until(() -> fanout.deliveryCount() == (long) sinkCount * messages);
+        long elapsed = System.nanoTime() - start;
+
+        LOGGER.log(Level.INFO, "sinks: {0}, messages: {1}, flushes: {2}, elapsed: {3} ms, deliveries/s: {4}",
+                new Object[]{
+                        sinkCount,
+                        messages,
+                        fanout.flushCount(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        (long) sinkCount * messages * 1_000_000_000L / elapsed
+                });
+        assertThat(fanout.flushCount()).isLessThanOrEqualTo(messages);
+    }
+}
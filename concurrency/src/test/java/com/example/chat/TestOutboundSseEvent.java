@@ -0,0 +1,59 @@
+package com.example.chat;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+
+import java.lang.reflect.Type;
+
+// A minimal OutboundSseEvent carrying a pre-encoded string payload.
+public record TestOutboundSseEvent(String id, String name, String data) implements OutboundSseEvent {
+
+    public static TestOutboundSseEvent of(String id, String data) {
+        return new TestOutboundSseEvent(id, "message", data);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getData() {
+        return data;
+    }
+
+    @Override
+    public Class<?> getType() {
+        return String.class;
+    }
+
+    @Override
+    public Type getGenericType() {
+        return String.class;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    @Override
+    public String getComment() {
+        return null;
+    }
+
+    @Override
+    public long getReconnectDelay() {
+        return RECONNECT_NOT_SET;
+    }
+
+    @Override
+    public boolean isReconnectDelaySet() {
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.chat;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// An in-memory SseEventSink which records the events it receives.
+public class TestSseEventSink implements SseEventSink {
+    public final AtomicInteger received = new AtomicInteger();
+    public final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+    final boolean recording;
+    volatile boolean closed;
+
+    public TestSseEventSink() {
+        this(false);
+    }
+
+    public TestSseEventSink(boolean recording) {
+        this.recording = recording;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public CompletionStage<?> send(OutboundSseEvent event) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("sink is closed"));
+        }
+        if (recording) {
+            events.add(event);
+        }
+        received.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
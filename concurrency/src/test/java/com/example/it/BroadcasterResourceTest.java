@@ -34,6 +34,8 @@ import jakarta.ws.rs.sse.SseEventSource;
 
 import com.example.broadcast.BroadcasterResource;
 import com.example.RestActivator;
+import com.example.sse.SseHeartbeat;
+import com.example.vt.WithVirtualThread;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
 import org.jboss.arquillian.junit5.ArquillianExtension;
@@ -66,7 +68,9 @@ public class BroadcasterResourceTest {
                 .asFile();
         WebArchive war = ShrinkWrap.create(WebArchive.class, "test.war")
                 .addAsLibraries(extraJars)
-                .addClass(BroadcasterResource.class)
+                .addPackage(BroadcasterResource.class.getPackage())
+                .addPackage(SseHeartbeat.class.getPackage())
+                .addPackage(WithVirtualThread.class.getPackage())
                 .addClass(RestActivator.class)
                 .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
         LOGGER.log(Level.INFO, "war deployment: {0}", new Object[]{war.toString(true)});
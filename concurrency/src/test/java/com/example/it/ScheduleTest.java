@@ -19,10 +19,11 @@ under the License.
 package com.example.it;
 
 import com.example.RestActivator;
+import com.example.schedule.NotificationPage;
 import com.example.schedule.StandUpMeeting;
+import com.example.vt.WithVirtualThread;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
-import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -39,7 +40,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,12 +57,14 @@ public class ScheduleTest {
         File[] extraJars = Maven
                 .resolver()
                 .loadPomFromFile("pom.xml")
+                .importCompileAndRuntimeDependencies()
                 .resolve("org.assertj:assertj-core")
                 .withTransitivity()
                 .asFile();
         var war = ShrinkWrap.create(WebArchive.class, "test.war")
                 .addAsLibraries(extraJars)
                 .addPackage(StandUpMeeting.class.getPackage())
+                .addPackage(WithVirtualThread.class.getPackage())
                 .addPackage(RestActivator.class.getPackage())
                 .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
         LOGGER.log(Level.INFO, "war deployment: {0}", new Object[]{war.toString(true)});
@@ -106,10 +108,9 @@ public class ScheduleTest {
         try (Response r = target.request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
             LOGGER.log(Level.INFO, "get invited names status: {0}", r.getStatus());
             assertEquals(200, r.getStatus());
-            var names = r.readEntity(new GenericType<List<String>>() {
-            });
-            LOGGER.log(Level.INFO, "invited names: {0}", names);
-            assertThat(names).isNotEmpty();
+            var page = r.readEntity(NotificationPage.class);
+            LOGGER.log(Level.INFO, "invited names: {0}", page.notifications());
+            assertThat(page.notifications()).isNotEmpty();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.schedule;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// A lease table shared by several SchedulerLock instances, standing for the nodes of a cluster.
+class InMemoryLeaseStore implements LeaseStore {
+    private record Lease(String owner, Instant lockedUntil) {
+    }
+
+    private final Map<String, Lease> leases = new HashMap<>();
+    final LongAdder calls = new LongAdder();
+    volatile boolean down;
+
+    @Override
+    public synchronized boolean tryAcquire(String name, String owner, Instant now, Instant lockedUntil) {
+        calls.increment();
+        checkUp();
+        Lease lease = leases.get(name);
+        if (lease != null && lease.lockedUntil().isAfter(now)) {
+            return false;
+        }
+        leases.put(name, new Lease(owner, lockedUntil));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String name, String owner, Instant now, Instant lockedUntil) {
+        calls.increment();
+        checkUp();
+        Lease lease = leases.get(name);
+        if (lease != null && lease.owner().equals(owner) && lease.lockedUntil().isAfter(now)) {
+            leases.put(name, new Lease(owner, lockedUntil));
+        }
+    }
+
+    private void checkUp() {
+        if (down) {
+            throw new IllegalStateException("lease store is down");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.schedule;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class NotificationDispatcherTest {
+    private static final Logger LOGGER = Logger.getLogger(NotificationDispatcherTest.class.getName());
+
+    @Test
+    void testEveryRecipientIsNotified() {
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 10, Duration.ofSeconds(1));
+        var notified = new LongAdder();
+
+        var report = dispatcher.dispatch(members(100), (name, email) -> notified.increment());
+
+        assertThat(notified.sum()).isEqualTo(100);
+        assertThat(report.sent()).isEqualTo(100);
+        assertThat(report.failed()).isZero();
+        assertThat(report.timedOut()).isZero();
+    }
+
+    @Test
+    void testTimeoutsDoNotAddUp() {
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 1_000, Duration.ofSeconds(2));
+        var started = new CountDownLatch(500);
+        var interrupted = new LongAdder();
+
+        // every send hangs until it is interrupted, they can only all start if the timeouts run side by side
+        var report = dispatcher.dispatch(members(500), (name, email) -> {
+            started.countDown();
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+            } catch (InterruptedException e) {
+                interrupted.increment();
+            }
+        });
+
+        assertThat(started.getCount()).isZero();
+        assertThat(report.timedOut()).isEqualTo(500);
+        await().atMost(Duration.ofSeconds(5)).until(() -> interrupted.sum() == 500);
+    }
+
+    @Test
+    void testSendIgnoringTheInterruptIsLeftBehind() {
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 10, Duration.ofMillis(100));
+        var release = new CountDownLatch(1);
+        var finished = new CountDownLatch(1);
+
+        var report = dispatcher.dispatch(members(1), (name, email) -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignored on purpose
+                }
+            }
+            finished.countDown();
+        });
+
+        assertThat(report.timedOut()).isEqualTo(1);
+        assertThat(finished.getCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void testFailuresAreCounted() {
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 10, Duration.ofSeconds(1));
+
+        var report = dispatcher.dispatch(members(10), (name, email) -> {
+            if (name.endsWith("3")) {
+                throw new IllegalStateException("mailbox full");
+            }
+        });
+
+        assertThat(report.sent()).isEqualTo(9);
+        assertThat(report.failed()).isEqualTo(1);
+    }
+
+    @Test
+    void testInFlightSendsAreBounded() {
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 8, Duration.ofSeconds(1));
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new LongAccumulator(Math::max, 0);
+
+        dispatcher.dispatch(members(200), (name, email) -> {
+            maxInFlight.accumulate(inFlight.incrementAndGet());
+            sleep(Duration.ofMillis(2));
+            inFlight.decrementAndGet();
+        });
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(8);
+    }
+
+    // compares the former ForkJoinPool per run implementation with the dispatcher, every send takes about 100 micros.
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 50_000})
+    @Tag("benchmark")
+    void testBenchmark(int memberCount) throws Exception {
+        var members = members(memberCount);
+        var notified = new LongAdder();
+        var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 1_000, Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        forkJoinPoolPerRun(members, (name, email) -> {
+            LockSupport.parkNanos(100_000);
+            notified.increment();
+        });
+        long forkJoinPool = System.nanoTime() - start;
+
+        var report = dispatcher.dispatch(members, (name, email) -> {
+            LockSupport.parkNanos(100_000);
+            notified.increment();
+        });
+
+        LOGGER.log(Level.INFO, "members: {0}, fork join pool per run: {1} ms, dispatcher: {2} ms",
+                new Object[]{memberCount, TimeUnit.NANOSECONDS.toMillis(forkJoinPool), report.elapsed().toMillis()});
+        assertThat(notified.sum()).isEqualTo(2L * memberCount);
+        assertThat(report.sent()).isEqualTo(memberCount);
+    }
+
+    // the former StandUpMeeting.sendInviteNotifications
+    private static void forkJoinPoolPerRun(Map<String, String> members, BiConsumer<String, String> send) {
+        try (ForkJoinPool pool = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                (t, e) -> LOGGER.log(Level.INFO, "Thread: {0}, error: {1}", new Object[]{t.getName(), e.getMessage()}),
+                true
+        )) {
+            var callables = members.keySet().stream()
+                    .map(name -> (Callable<Void>) () -> {
+                        send.accept(name, members.get(name));
+                        return null;
+                    })
+                    .toList();
+
+            var futures = pool.invokeAll(callables)
+                    .stream()
+                    .map(r -> {
+                        try {
+                            return CompletableFuture.completedFuture(r.get(100, TimeUnit.MILLISECONDS));
+                        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                            throw new CompletionException(e);
+                        }
+                    })
+                    .toList();
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private static Map<String, String> members(int count) {
+        var members = new LinkedHashMap<String, String>();
+        IntStream.range(0, count).forEach(i -> members.put("member" + i, "member" + i + "@example.com"));
+        return members;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationLedgerTest {
+    private static final Logger LOGGER = Logger.getLogger(NotificationLedgerTest.class.getName());
+
+    Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempDirectory("ledger").resolve("notifications.ledger");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.getParent());
+    }
+
+    @Test
+    void testAppendsAreReadableBeforeFlush() {
+        try (var ledger = NotificationLedger.open(file)) {
+            ledger.append("jack", "jack@example.com");
+            ledger.append("ross", "ross@example.com");
+
+            assertThat(ledger.pendingCount()).isEqualTo(2);
+            assertThat(ledger.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("jack", "ross");
+        }
+    }
+
+    @Test
+    void testPagesFollowTheCursor() {
+        try (var ledger = NotificationLedger.open(file)) {
+            IntStream.range(0, 25).forEach(i -> ledger.append("member" + i, "member" + i + "@example.com"));
+
+            List<String> names = new ArrayList<>();
+            long after = 0;
+            int pages = 0;
+            NotificationPage page;
+            do {
+                page = ledger.page(after, 10);
+                page.notifications().forEach(n -> names.add(n.name()));
+                pages++;
+                after = page.next() == null ? after : page.next();
+            } while (page.next() != null);
+
+            assertThat(pages).isEqualTo(3);
+            assertThat(names).hasSize(25);
+            assertThat(names.getFirst()).isEqualTo("member0");
+            assertThat(names.getLast()).isEqualTo("member24");
+        }
+    }
+
+    @Test
+    void testFlushWritesOneBatch() throws IOException {
+        try (var ledger = NotificationLedger.open(file)) {
+            IntStream.range(0, 100).forEach(i -> ledger.append("member" + i, "member" + i + "@example.com"));
+
+            assertThat(ledger.flush()).isEqualTo(100);
+            assertThat(ledger.flush()).isZero();
+            assertThat(ledger.pendingCount()).isZero();
+        }
+        assertThat(Files.readAllLines(file)).hasSize(100);
+    }
+
+    @Test
+    void testNotificationsSurviveRestart() {
+        try (var ledger = NotificationLedger.open(file)) {
+            ledger.append("jack", "jack@example.com");
+            ledger.append("ross", "ross@example.com");
+        }
+
+        try (var reopened = NotificationLedger.open(file)) {
+            assertThat(reopened.lastSequence()).isEqualTo(2);
+            var appended = reopened.append("rachel", "rachel@example.com");
+            assertThat(appended.sequence()).isEqualTo(3);
+            assertThat(reopened.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("jack", "ross", "rachel");
+        }
+    }
+
+    @Test
+    void testTruncatedEntryIsSkipped() throws IOException {
+        try (var ledger = NotificationLedger.open(file)) {
+            ledger.append("jack", "jack@example.com");
+        }
+        // a crash in the middle of a write
+        Files.writeString(file, "2\t2024-01-01T08:00:00Z\tro", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (var reopened = NotificationLedger.open(file)) {
+            assertThat(reopened.lastSequence()).isEqualTo(1);
+            assertThat(reopened.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("jack");
+            reopened.append("ross", "ross@example.com");
+        }
+        assertThat(Files.readAllLines(file)).hasSize(2);
+        try (var reopened = NotificationLedger.open(file)) {
+            assertThat(reopened.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("jack", "ross");
+        }
+    }
+
+    @Test
+    void testTornLastLineIsNotParsed() throws IOException {
+        try (var ledger = NotificationLedger.open(file)) {
+            ledger.append("jack", "jack@example.com");
+        }
+        // every field is there but the email was cut short, the line break is missing
+        Files.writeString(file, "2\t2024-01-01T08:00:00Z\tross\tross@exa", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (var reopened = NotificationLedger.open(file)) {
+            assertThat(reopened.lastSequence()).isEqualTo(1);
+            assertThat(reopened.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("jack");
+        }
+    }
+
+    @Test
+    void testIndexKeepsTheLatestEntriesAndTheFileIsCompacted() throws IOException {
+        try (var ledger = NotificationLedger.open(file, 3)) {
+            IntStream.range(0, 7).forEach(i -> ledger.append("user" + i, "user" + i + "@example.com"));
+            assertThat(ledger.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("user4", "user5", "user6");
+        }
+        assertThat(Files.readAllLines(file)).hasSize(7);
+
+        try (var reopened = NotificationLedger.open(file, 3)) {
+            assertThat(reopened.lastSequence()).isEqualTo(7);
+            assertThat(reopened.page(0, 10).notifications())
+                    .extracting(Notification::name)
+                    .containsExactly("user4", "user5", "user6");
+            reopened.append("user7", "user7@example.com");
+        }
+        assertThat(Files.readAllLines(file)).hasSize(4);
+    }
+
+    @Test
+    void testConcurrentAppends() throws Exception {
+        int threads = 8;
+        int perThread = 10_000;
+        try (var ledger = NotificationLedger.open(file)) {
+            long start = System.nanoTime();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                IntStream.range(0, threads).forEach(t -> executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ledger.append("member" + t + "-" + i, "member@example.com");
+                        if (i % 1_000 == 0) {
+                            ledger.flush();
+                        }
+                    }
+                }));
+            }
+            ledger.flush();
+            LOGGER.log(Level.INFO, "appended and flushed {0} notifications in {1} ms",
+                    new Object[]{threads * perThread, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+
+            Set<Long> sequences = new HashSet<>();
+            ledger.page(0, threads * perThread).notifications().forEach(n -> sequences.add(n.sequence()));
+            assertThat(sequences).hasSize(threads * perThread);
+            assertThat(ledger.pendingCount()).isZero();
+        }
+        assertThat(Files.readAllLines(file)).hasSize(threads * perThread);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class ScheduledJobTest {
+    final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T08:00:00Z"));
+
+    @Test
+    void testSkipIfRunning() throws Exception {
+        var job = new ScheduledJob("standup", MisfirePolicy.SKIP_IF_RUNNING, Duration.ZERO, 10, clock);
+        var runs = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.runAsync(() -> job.fire(() -> {
+            runs.incrementAndGet();
+            awaitRelease(release);
+        }));
+        await().atMost(Duration.ofSeconds(5)).until(() -> job.status().running());
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.SKIPPED);
+        }
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(job.status().runs()).isEqualTo(1);
+        assertThat(job.status().misfires()).isEqualTo(3);
+        assertThat(job.status().running()).isFalse();
+    }
+
+    @Test
+    void testMisfiresAreCoalesced() throws Exception {
+        var job = new ScheduledJob("standup", MisfirePolicy.COALESCE, Duration.ZERO, 10, clock);
+        var runs = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.runAsync(() -> job.fire(() -> {
+            if (runs.incrementAndGet() == 1) {
+                awaitRelease(release);
+            }
+        }));
+        await().atMost(Duration.ofSeconds(5)).until(() -> job.status().running());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.COALESCED);
+        }
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        // the five missed firings give a single extra run
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(job.status().runs()).isEqualTo(2);
+        assertThat(job.status().running()).isFalse();
+    }
+
+    @Test
+    void testFixedDelay() {
+        var job = new ScheduledJob("standup", MisfirePolicy.FIXED_DELAY, Duration.ofSeconds(10), 10, clock);
+        var runs = new AtomicInteger();
+
+        assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.SUCCEEDED);
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.SKIPPED);
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.SUCCEEDED);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailureIsRecorded() {
+        var job = new ScheduledJob("standup", MisfirePolicy.SKIP_IF_RUNNING, Duration.ZERO, 10, clock);
+
+        var outcome = job.fire(() -> {
+            throw new IllegalStateException("mail server down");
+        });
+
+        assertThat(outcome).isEqualTo(JobExecution.Outcome.FAILED);
+        var execution = job.status().history().getFirst();
+        assertThat(execution.outcome()).isEqualTo(JobExecution.Outcome.FAILED);
+        assertThat(execution.error()).contains("mail server down");
+        // a failed run does not block the next one
+        assertThat(job.fire(() -> {
+        })).isEqualTo(JobExecution.Outcome.SUCCEEDED);
+    }
+
+    @Test
+    void testErrorDoesNotLeaveTheJobRunning() throws Exception {
+        var job = new ScheduledJob("standup", MisfirePolicy.COALESCE, Duration.ZERO, 10, clock);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var runs = new AtomicInteger();
+
+        var first = CompletableFuture.runAsync(() -> job.fire(() -> {
+            runs.incrementAndGet();
+            started.countDown();
+            awaitRelease(release);
+            throw new OutOfMemoryError("no heap left");
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.COALESCED);
+        release.countDown();
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(OutOfMemoryError.class);
+        var status = job.status();
+        assertThat(status.running()).isFalse();
+        assertThat(status.history().getLast().outcome()).isEqualTo(JobExecution.Outcome.FAILED);
+        // the coalesced firing is dropped with the failed run, the next firing runs
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(job.fire(runs::incrementAndGet)).isEqualTo(JobExecution.Outcome.SUCCEEDED);
+    }
+
+    @Test
+    void testRunWithoutTheLeaseIsRecordedAsLeaseHeld() {
+        var job = new ScheduledJob("standup", MisfirePolicy.SKIP_IF_RUNNING, Duration.ZERO, 10, clock);
+
+        assertThat(job.fireWithLease(() -> false)).isEqualTo(JobExecution.Outcome.LEASE_HELD);
+        assertThat(job.fireWithLease(() -> true)).isEqualTo(JobExecution.Outcome.SUCCEEDED);
+
+        assertThat(job.status().history()).extracting(JobExecution::outcome)
+                .containsExactly(JobExecution.Outcome.LEASE_HELD, JobExecution.Outcome.SUCCEEDED);
+        assertThat(job.status().running()).isFalse();
+    }
+
+    @Test
+    void testHistoryIsBounded() {
+        var job = new ScheduledJob("standup", MisfirePolicy.SKIP_IF_RUNNING, Duration.ZERO, 3, clock);
+
+        for (int i = 0; i < 10; i++) {
+            job.fire(() -> clock.advance(Duration.ofMillis(250)));
+        }
+
+        var status = job.status();
+        assertThat(status.runs()).isEqualTo(10);
+        assertThat(status.history()).hasSize(3);
+        assertThat(status.history().getLast().duration()).isEqualTo(Duration.ofMillis(250));
+    }
+
+    private static void awaitRelease(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulerLockTest {
+    private static final Logger LOGGER = Logger.getLogger(SchedulerLockTest.class.getName());
+    private static final Duration AT_MOST = Duration.ofSeconds(60);
+    private static final Duration AT_LEAST = Duration.ofSeconds(4);
+
+    final InMemoryLeaseStore store = new InMemoryLeaseStore();
+    final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T08:00:00Z"));
+
+    @Test
+    void testEveryFiringRunsOnOneNode() throws Exception {
+        List<SchedulerLock> nodes = nodes(5);
+        var runs = new AtomicInteger();
+
+        // 20 firings of a 5 seconds trigger, all nodes fire at once
+        for (int firing = 0; firing < 20; firing++) {
+            var start = new CountDownLatch(1);
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                nodes.forEach(node -> executor.submit(() -> {
+                    start.await();
+                    return node.runExclusively("standup", AT_MOST, AT_LEAST, runs::incrementAndGet);
+                }));
+                start.countDown();
+            }
+            clock.advance(Duration.ofSeconds(5));
+        }
+
+        assertThat(runs.get()).isEqualTo(20);
+        assertThat(nodes.stream().mapToLong(node -> node.stats().acquired()).sum()).isEqualTo(20);
+        assertThat(nodes.stream().mapToLong(node -> node.stats().skipped()).sum()).isEqualTo(80);
+        nodes.forEach(node -> LOGGER.log(Level.INFO, "lock stats: {0}", node.stats()));
+    }
+
+    @Test
+    void testSkewedNodeDoesNotRunAgain() {
+        var first = new SchedulerLock(store, "node-1", clock);
+        var late = new SchedulerLock(store, "node-2", clock);
+        var runs = new AtomicInteger();
+
+        assertThat(first.runExclusively("standup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isTrue();
+        // the job was fast, the other node fires the same trigger one second later
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(late.runExclusively("standup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isFalse();
+
+        clock.advance(Duration.ofSeconds(4));
+        assertThat(late.runExclusively("standup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isTrue();
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testLeaseOfDeadNodeExpires() {
+        var crashed = new SchedulerLock(store, "node-1", clock);
+        var survivor = new SchedulerLock(store, "node-2", clock);
+
+        // the node dies while running the job, the lease is never released
+        store.tryAcquire("standup", crashed.nodeId(), clock.instant(), clock.instant().plus(AT_MOST));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(survivor.runExclusively("standup", AT_MOST, AT_LEAST, () -> {
+        })).isFalse();
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(survivor.runExclusively("standup", AT_MOST, AT_LEAST, () -> {
+        })).isTrue();
+    }
+
+    @Test
+    void testJobsAreLockedSeparately() {
+        var node = new SchedulerLock(store, "node-1", clock);
+        var other = new SchedulerLock(store, "node-2", clock);
+
+        assertThat(node.runExclusively("standup", AT_MOST, AT_LEAST, () -> {
+        })).isTrue();
+        assertThat(other.runExclusively("monthly", AT_MOST, AT_LEAST, () -> {
+        })).isTrue();
+    }
+
+    @Test
+    void testJobIsSkippedWhenStoreIsDown() {
+        var node = new SchedulerLock(store, "node-1", clock);
+        var runs = new AtomicInteger();
+        store.down = true;
+
+        assertThat(node.runExclusively("standup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isFalse();
+
+        assertThat(runs.get()).isZero();
+        assertThat(node.stats().errors()).isEqualTo(1);
+        assertThat(node.stats().acquired()).isZero();
+    }
+
+    @Test
+    void testFailedJobReleasesTheLease() {
+        var node = new SchedulerLock(store, "node-1", clock);
+        var other = new SchedulerLock(store, "node-2", clock);
+
+        try {
+            node.runExclusively("standup", AT_MOST, Duration.ZERO, () -> {
+                throw new IllegalStateException("mail server down");
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertThat(other.runExclusively("standup", AT_MOST, Duration.ZERO, () -> {
+        })).isTrue();
+    }
+
+    private List<SchedulerLock> nodes(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new SchedulerLock(store, "node-" + i, clock))
+                .toList();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.sse;
+
+import com.example.chat.BoundedSseEventSink;
+import com.example.chat.OverflowPolicy;
+import com.example.chat.SseSinkMetrics;
+import com.example.chat.TestOutboundSseEvent;
+import com.example.chat.TestSseEventSink;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SseHeartbeatTest {
+
+    ScheduledExecutorService executor;
+    SseHeartbeat heartbeat;
+    AtomicInteger reaped = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newScheduledThreadPool(2, Thread.ofVirtual().factory());
+        heartbeat = new SseHeartbeat(
+                executor,
+                () -> TestOutboundSseEvent.of(null, "heartbeat"),
+                Duration.ofMillis(20),
+                Duration.ofMillis(300)
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        heartbeat.destroy();
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testHealthySinksReceiveHeartbeats() {
+        var sink = new TestSseEventSink();
+        heartbeat.register(sink, reaped::incrementAndGet);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.received.get() >= 3);
+        assertThat(heartbeat.stats().heartbeats()).isGreaterThanOrEqualTo(3);
+        assertThat(heartbeat.stats().trackedSinks()).isEqualTo(1);
+        assertThat(reaped.get()).isZero();
+    }
+
+    @Test
+    void testFailingSinkIsReaped() {
+        var sink = new FailingSseEventSink();
+        heartbeat.register(sink, reaped::incrementAndGet);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> reaped.get() == 1);
+        assertThat(sink.closed).isTrue();
+        assertThat(heartbeat.stats().reapedSinks()).isEqualTo(1);
+        assertThat(heartbeat.stats().trackedSinks()).isZero();
+    }
+
+    @Test
+    void testBackloggedSinkIsReaped() {
+        // the client stopped reading, the first write never completes and the queue fills up
+        var stalled = new StalledSseEventSink();
+        var sink = new BoundedSseEventSink(stalled, 4, OverflowPolicy.DROP_OLDEST, new SseSinkMetrics(), evicted -> {
+        });
+        heartbeat.register(sink, reaped::incrementAndGet);
+        for (int i = 0; i < 10; i++) {
+            sink.send(TestOutboundSseEvent.of("" + i, "message"));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> reaped.get() == 1);
+        assertThat(sink.isClosed()).isTrue();
+        assertThat(stalled.closed).isTrue();
+        assertThat(heartbeat.stats().heartbeats()).isZero();
+    }
+
+    @Test
+    void testTrackedHeartbeatWaitsForQueuedEvents() {
+        var delegate = new TestSseEventSink();
+        var sink = new BoundedSseEventSink(delegate, 4, OverflowPolicy.DROP_OLDEST, new SseSinkMetrics(), evicted -> {
+        });
+        heartbeat.register(sink, reaped::incrementAndGet);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> heartbeat.stats().heartbeats() >= 2);
+        assertThat(delegate.received.get()).isGreaterThanOrEqualTo(2);
+        assertThat(sink.queueDepth()).isZero();
+    }
+
+    @Test
+    void testClosedSinkIsRemovedWithoutReaping() {
+        var sink = new TestSseEventSink();
+        heartbeat.register(sink, reaped::incrementAndGet);
+        sink.close();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> heartbeat.stats().trackedSinks() == 0);
+        assertThat(reaped.get()).isEqualTo(1);
+        assertThat(heartbeat.stats().reapedSinks()).isZero();
+    }
+
+    static class FailingSseEventSink implements SseEventSink {
+        volatile boolean closed;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            return CompletableFuture.failedFuture(new IllegalStateException("connection reset"));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    static class StalledSseEventSink implements SseEventSink {
+        volatile boolean closed;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
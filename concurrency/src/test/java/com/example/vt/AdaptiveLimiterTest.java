@@ -0,0 +1,90 @@
+package com.example.vt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void testRejectsOverTheLimit() {
+        var limiter = new AdaptiveLimiter(5, 1, 10, 0.9, 2.0, 100);
+
+        IntStream.range(0, 5).forEach(i -> assertThat(limiter.tryAcquire()).isTrue());
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.rejected()).isEqualTo(1);
+        limiter.ignore();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsSteady() {
+        var limiter = new AdaptiveLimiter(10, 1, 50, 0.9, 2.0, 100);
+
+        // keep the limit in use, every call takes the same time
+        for (int i = 0; i < 200; i++) {
+            while (limiter.tryAcquire()) {
+                // fill all the slots
+            }
+            limiter.release(FAST);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(50);
+        assertThat(limiter.decreases()).isZero();
+    }
+
+    @Test
+    void testUnusedLimitDoesNotGrow() {
+        var limiter = new AdaptiveLimiter(10, 1, 50, 0.9, 2.0, 100);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        var limiter = new AdaptiveLimiter(40, 4, 50, 0.9, 2.0, 1_000);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+
+        // the downstream slows down five times
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.decreases()).isEqualTo(20);
+    }
+
+    @Test
+    void testBaselineFollowsLastingLatencyChange() {
+        var limiter = new AdaptiveLimiter(10, 1, 50, 0.9, 2.0, 10);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+
+        // the slower latency becomes the new baseline after two windows
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+        long decreases = limiter.decreases();
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        assertThat(limiter.baselineMicros()).isEqualTo(TimeUnit.NANOSECONDS.toMicros(SLOW));
+        assertThat(limiter.decreases()).isEqualTo(decreases);
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.vt;
+
+import jakarta.enterprise.concurrent.ContextService;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Propagates the thread context an implementation captures for APPLICATION (the context class loader)
+// and SECURITY (the caller, a thread local here) the way the implementations do it: a snapshot is taken
+// when the task is contextualized, and applied then restored around every call.
+class CapturingContextService implements ContextService {
+    static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    private final Executor asyncExecutor;
+
+    CapturingContextService(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    record Snapshot(ClassLoader classLoader, String caller) {
+        static Snapshot capture() {
+            return new Snapshot(Thread.currentThread().getContextClassLoader(), CALLER.get());
+        }
+
+        // returns the replaced context, to be restored after the call
+        Snapshot apply() {
+            var previous = capture();
+            Thread.currentThread().setContextClassLoader(classLoader);
+            CALLER.set(caller);
+            return previous;
+        }
+
+        void restore() {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            if (caller == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(caller);
+            }
+        }
+    }
+
+    @Override
+    public <R> Callable<R> contextualCallable(Callable<R> callable) {
+        var snapshot = Snapshot.capture();
+        return () -> {
+            var previous = snapshot.apply();
+            try {
+                return callable.call();
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <T, U> BiConsumer<T, U> contextualConsumer(BiConsumer<T, U> consumer) {
+        var snapshot = Snapshot.capture();
+        return (t, u) -> {
+            var previous = snapshot.apply();
+            try {
+                consumer.accept(t, u);
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <T> Consumer<T> contextualConsumer(Consumer<T> consumer) {
+        var snapshot = Snapshot.capture();
+        return t -> {
+            var previous = snapshot.apply();
+            try {
+                consumer.accept(t);
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <T, U, R> BiFunction<T, U, R> contextualFunction(BiFunction<T, U, R> function) {
+        var snapshot = Snapshot.capture();
+        return (t, u) -> {
+            var previous = snapshot.apply();
+            try {
+                return function.apply(t, u);
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <T, R> Function<T, R> contextualFunction(Function<T, R> function) {
+        var snapshot = Snapshot.capture();
+        return t -> {
+            var previous = snapshot.apply();
+            try {
+                return function.apply(t);
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public Runnable contextualRunnable(Runnable runnable) {
+        var snapshot = Snapshot.capture();
+        return () -> {
+            var previous = snapshot.apply();
+            try {
+                runnable.run();
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <R> Supplier<R> contextualSupplier(Supplier<R> supplier) {
+        var snapshot = Snapshot.capture();
+        return () -> {
+            var previous = snapshot.apply();
+            try {
+                return supplier.get();
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public <T> Flow.Subscriber<T> contextualSubscriber(Flow.Subscriber<T> subscriber) {
+        var snapshot = Snapshot.capture();
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                run(() -> subscriber.onSubscribe(subscription));
+            }
+
+            @Override
+            public void onNext(T item) {
+                run(() -> subscriber.onNext(item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                run(() -> subscriber.onError(throwable));
+            }
+
+            @Override
+            public void onComplete() {
+                run(subscriber::onComplete);
+            }
+
+            private void run(Runnable signal) {
+                var previous = snapshot.apply();
+                try {
+                    signal.run();
+                } finally {
+                    previous.restore();
+                }
+            }
+        };
+    }
+
+    @Override
+    public <T, R> Flow.Processor<T, R> contextualProcessor(Flow.Processor<T, R> processor) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T createContextualProxy(T instance, Class<T> intf) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object createContextualProxy(Object instance, Class<?>... interfaces) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T createContextualProxy(T instance, Map<String, String> executionProperties, Class<T> intf) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object createContextualProxy(Object instance, Map<String, String> executionProperties, Class<?>... interfaces) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Executor currentContextExecutor() {
+        var snapshot = Snapshot.capture();
+        return task -> {
+            var previous = snapshot.apply();
+            try {
+                task.run();
+            } finally {
+                previous.restore();
+            }
+        };
+    }
+
+    @Override
+    public Map<String, String> getExecutionProperties(Object contextualProxy) {
+        return Map.of();
+    }
+
+    // the dependent stages run with the context captured here, on the async executor by default.
+    @Override
+    public <T> CompletableFuture<T> withContextCapture(CompletableFuture<T> stage) {
+        var contextual = new ContextualFuture<T>(contextualExecutor());
+        stage.whenComplete((value, error) -> {
+            if (error != null) {
+                contextual.completeExceptionally(error);
+            } else {
+                contextual.complete(value);
+            }
+        });
+        return contextual;
+    }
+
+    @Override
+    public <T> CompletionStage<T> withContextCapture(CompletionStage<T> stage) {
+        return withContextCapture(stage.toCompletableFuture());
+    }
+
+    private Executor contextualExecutor() {
+        var snapshot = Snapshot.capture();
+        return task -> asyncExecutor.execute(() -> {
+            var previous = snapshot.apply();
+            try {
+                task.run();
+            } finally {
+                previous.restore();
+            }
+        });
+    }
+
+    static class ContextualFuture<T> extends CompletableFuture<T> {
+        private final Executor executor;
+
+        ContextualFuture(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new ContextualFuture<>(executor);
+        }
+
+        @Override
+        public Executor defaultExecutor() {
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.vt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.example.vt.CapturingContextService.CALLER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares raw tasks with tasks contextualized the way the managed executors and ChatService.send do it,
+// on platform and virtual threads. The tasks are empty, the numbers are the cost of the wrapping,
+// the context capture and the context switch around the call, per task.
+// The default sizes only check the propagation, run with -Dvt.contextPropagation.iterations=100000 for the numbers.
+class ContextPropagationBenchmarkTest {
+    private static final Logger LOGGER = Logger.getLogger(ContextPropagationBenchmarkTest.class.getName());
+    private static final int ITERATIONS = Integer.getInteger("vt.contextPropagation.iterations", 2_000);
+    private static final int WARM_UP = ITERATIONS / 5;
+    private static final int ROUNDS = 3;
+    private static final String CALLER_NAME = "duke";
+
+    enum Threads {
+        PLATFORM, VIRTUAL;
+
+        ExecutorService newExecutor() {
+            return this == PLATFORM
+                    ? Executors.newFixedThreadPool(4)
+                    : Executors.newVirtualThreadPerTaskExecutor();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        CALLER.set(CALLER_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CALLER.remove();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Threads.class)
+    void testRunnable(Threads threads) throws Exception {
+        try (var executor = threads.newExecutor()) {
+            var contextService = new CapturingContextService(executor);
+            var withCaller = new LongAdder();
+            Runnable task = () -> {
+                if (CALLER_NAME.equals(CALLER.get())) {
+                    withCaller.increment();
+                }
+            };
+
+            long raw = measure(executor, i -> task);
+            long contextual = measure(executor, i -> contextService.contextualRunnable(task));
+
+            report(threads, "runnable", raw, contextual);
+            // only the contextualized runs see the caller, the warm-up included
+            assertThat(withCaller.sum()).isEqualTo(WARM_UP + ROUNDS * ITERATIONS);
+        }
+    }
+
+    // ChatService.send wraps the subscriber for every message, compared with a subscriber wrapped once.
+    @ParameterizedTest
+    @EnumSource(Threads.class)
+    void testSubscriber(Threads threads) throws Exception {
+        try (var executor = threads.newExecutor()) {
+            var contextService = new CapturingContextService(executor);
+            var subscriber = new CountingSubscriber();
+            var wrappedOnce = contextService.contextualSubscriber(subscriber);
+
+            long raw = measure(executor, i -> () -> signal(subscriber, i));
+            long perMessage = measure(executor, i -> {
+                var wrapped = contextService.contextualSubscriber(subscriber);
+                return () -> signal(wrapped, i);
+            });
+            long once = measure(executor, i -> () -> signal(wrappedOnce, i));
+
+            report(threads, "subscriber wrapped per message", raw, perMessage);
+            report(threads, "subscriber wrapped once", raw, once);
+            assertThat(subscriber.withCaller.sum()).isEqualTo(2L * (WARM_UP + ROUNDS * ITERATIONS));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Threads.class)
+    void testCompletionStage(Threads threads) throws Exception {
+        try (var executor = threads.newExecutor()) {
+            var contextService = new CapturingContextService(executor);
+            var withCaller = new LongAdder();
+
+            long raw = measureStages(() -> CompletableFuture
+                    .supplyAsync(() -> 1, executor)
+                    .thenApplyAsync(i -> i + 1, executor));
+            long contextual = measureStages(() -> contextService
+                    .withContextCapture(CompletableFuture.supplyAsync(() -> 1, executor))
+                    .thenApplyAsync(i -> {
+                        if (CALLER_NAME.equals(CALLER.get())) {
+                            withCaller.increment();
+                        }
+                        return i + 1;
+                    }));
+
+            report(threads, "completion stage", raw, contextual);
+            assertThat(withCaller.sum()).isEqualTo(WARM_UP + ROUNDS * ITERATIONS);
+        }
+    }
+
+    // nanos per task of the best round, after a warm-up round
+    private static long measure(ExecutorService executor, IntFunction<Runnable> tasks) throws InterruptedException {
+        run(executor, tasks, WARM_UP);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run(executor, tasks, ITERATIONS);
+            best = Math.min(best, (System.nanoTime() - start) / ITERATIONS);
+        }
+        return best;
+    }
+
+    private static void run(ExecutorService executor, IntFunction<Runnable> tasks, int count) throws InterruptedException {
+        var done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            var task = tasks.apply(i);
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static long measureStages(Supplier<CompletableFuture<Integer>> stages) {
+        runStages(stages, WARM_UP);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            runStages(stages, ITERATIONS);
+            best = Math.min(best, (System.nanoTime() - start) / ITERATIONS);
+        }
+        return best;
+    }
+
+    private static void runStages(Supplier<CompletableFuture<Integer>> stages, int count) {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(stages.get());
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void signal(Flow.Subscriber<Object> subscriber, int item) {
+        subscriber.onSubscribe(NO_OP);
+        subscriber.onNext(item);
+        subscriber.onComplete();
+    }
+
+    private static void report(Threads threads, String task, long raw, long contextual) {
+        LOGGER.log(Level.INFO, "{0} threads, {1}: raw {2} ns/op, contextual {3} ns/op, overhead {4} ns/op",
+                new Object[]{threads, task, raw, contextual, contextual - raw});
+    }
+
+    private static final Flow.Subscription NO_OP = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    static class CountingSubscriber implements Flow.Subscriber<Object> {
+        final LongAdder withCaller = new LongAdder();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (CALLER_NAME.equals(CALLER.get())) {
+                withCaller.increment();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.vt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class LimitedExecutorTest {
+    private static final Logger LOGGER = Logger.getLogger(LimitedExecutorTest.class.getName());
+
+    @Test
+    void testRejectsFastWhenSaturated() throws Exception {
+        try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            var executor = new LimitedExecutor(virtualThreads, new AdaptiveLimiter(2, 1, 2, 0.9, 2.0, 100));
+            var release = new CountDownLatch(1);
+            executor.execute(() -> awaitRelease(release));
+            executor.execute(() -> awaitRelease(release));
+
+            // rejected right away, not after waiting for one of the blocked tasks to finish
+            try {
+                executor.execute(() -> {
+                });
+                throw new AssertionError("expected a rejection");
+            } catch (RejectedExecutionException e) {
+                assertThat(release.getCount()).isEqualTo(1);
+                assertThat(executor.stats().inFlight()).isEqualTo(2);
+            }
+            release.countDown();
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> executor.stats().inFlight() == 0);
+            assertThat(executor.stats().rejected()).isEqualTo(1);
+            assertThat(executor.stats().accepted()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testFailedTaskReleasesItsSlot() throws Exception {
+        try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            var executor = new LimitedExecutor(virtualThreads, new AdaptiveLimiter(1, 1, 1, 0.9, 2.0, 100));
+
+            executor.execute(() -> {
+                throw new IllegalStateException("downstream failed");
+            });
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> executor.stats().inFlight() == 0);
+            assertThat(executor.stats().limit()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testQueueWaitIsReported() throws Exception {
+        // a delegate running one task at a time, the others wait in its queue
+        try (var singleThread = Executors.newSingleThreadExecutor()) {
+            var executor = new LimitedExecutor(singleThread, new AdaptiveLimiter(10, 1, 10, 0.9, 2.0, 100));
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> sleep(Duration.ofMillis(10)));
+            }
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> executor.stats().inFlight() == 0);
+            assertThat(executor.stats().maxQueueWaitMicros()).isGreaterThanOrEqualTo(30_000);
+        }
+    }
+
+    // the downstream serves 20 calls at a time in 5 ms, the others queue up in front of it.
+    @Test
+    void testLimitConvergesToDownstreamCapacity() throws Exception {
+        int capacity = 20;
+        var downstream = new Semaphore(capacity);
+        var completed = new LongAdder();
+        try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            var executor = new LimitedExecutor(virtualThreads, new AdaptiveLimiter(100, 5, 500, 0.9, 2.0, 200));
+
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (System.nanoTime() < end) {
+                try {
+                    executor.execute(() -> {
+                        downstream.acquireUninterruptibly();
+                        try {
+                            sleep(Duration.ofMillis(5));
+                        } finally {
+                            downstream.release();
+                        }
+                        completed.increment();
+                    });
+                } catch (RejectedExecutionException e) {
+                    Thread.sleep(1);
+                }
+            }
+
+            var stats = executor.stats();
+            LOGGER.log(Level.INFO, "completed: {0}, limiter: {1}", new Object[]{completed.sum(), stats});
+            assertThat(stats.limitDecreases()).isGreaterThan(0L);
+            assertThat(stats.limit()).isLessThan(100);
+            assertThat(stats.rejected()).isGreaterThan(0L);
+        }
+    }
+
+    private static void awaitRelease(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.vt;
+
+import com.example.chat.BoundedSseEventSink;
+import com.example.chat.ChatRooms;
+import com.example.chat.OverflowPolicy;
+import com.example.chat.SseSinkMetrics;
+import com.example.chat.TestOutboundSseEvent;
+import com.example.chat.TestSseEventSink;
+import com.example.schedule.LeaseStore;
+import com.example.schedule.MisfirePolicy;
+import com.example.schedule.NotificationDispatcher;
+import com.example.schedule.NotificationLedger;
+import com.example.schedule.ScheduledJob;
+import com.example.schedule.SchedulerLock;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// The monitor catches any park while pinned, not only the ones longer than the JFR default threshold.
+class PinningMonitorTest {
+    private static final Logger LOGGER = Logger.getLogger(PinningMonitorTest.class.getName());
+
+    PinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new PinningMonitor(Duration.ZERO, "com.example");
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void testPinningIsReportedPerCallSite() throws Exception {
+        var lock = new Object();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 3).forEach(i -> executor.submit(() -> sleepHoldingMonitor(lock)));
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> monitor.stats().pinnedEvents() >= 3);
+
+        var callSite = monitor.stats().callSites().getFirst();
+        assertThat(callSite.event()).isEqualTo(PinningMonitor.PINNED);
+        assertThat(callSite.callSite()).startsWith(PinningMonitorTest.class.getName());
+        assertThat(callSite.count()).isEqualTo(3);
+        assertThat(callSite.maxMicros()).isPositive();
+    }
+
+    @Test
+    void testChatPathsDoNotPin() throws Exception {
+        try (var executor = Executors.newScheduledThreadPool(0, Thread.ofVirtual().factory())) {
+            var rooms = new ChatRooms(executor, Duration.ofMillis(5), 10);
+            var metrics = new SseSinkMetrics();
+            var delivered = new LongAdder();
+            IntStream.range(0, 50).forEach(i -> rooms.join(
+                    "room-" + i % 5,
+                    UUID.randomUUID(),
+                    new BoundedSseEventSink(new SlowSseEventSink(delivered), 16, OverflowPolicy.DROP_OLDEST, metrics, evicted -> {
+                    })
+            ));
+            IntStream.range(0, 20).forEach(i -> rooms.publish("room-" + i % 5, TestOutboundSseEvent.of(Integer.toString(i), "message " + i)));
+
+            await().atMost(Duration.ofSeconds(10)).until(() -> delivered.sum() == 200);
+        }
+
+        assertNoPinning();
+    }
+
+    @Test
+    void testSchedulePathsDoNotPin() throws Exception {
+        var file = Files.createTempDirectory("ledger").resolve("notifications.ledger");
+        try (var ledger = NotificationLedger.open(file)) {
+            var dispatcher = new NotificationDispatcher(Thread.ofVirtual().factory(), 100, Duration.ofSeconds(1));
+            var job = new ScheduledJob("standup", MisfirePolicy.SKIP_IF_RUNNING, Duration.ZERO, 10, Clock.systemUTC());
+            var lock = new SchedulerLock(new MapLeaseStore(), "node-1", Clock.systemUTC());
+            var members = new LinkedHashMap<String, String>();
+            IntStream.range(0, 500).forEach(i -> members.put("member" + i, "member" + i + "@example.com"));
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                IntStream.range(0, 3).forEach(i -> executor.submit(() -> job.fire(() -> lock.runExclusively(
+                        "standup",
+                        Duration.ofMinutes(1),
+                        Duration.ZERO,
+                        () -> {
+                            dispatcher.dispatch(members, (name, email) -> {
+                                sleep(Duration.ofMillis(1));
+                                ledger.append(name, email);
+                            });
+                            ledger.flush();
+                        }
+                ))));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+        }
+
+        assertNoPinning();
+    }
+
+    // waits for the recorded events to be delivered, then checks none of them is a pinning event.
+    private void assertNoPinning() {
+        long flushed = monitor.flushCount();
+        await().atMost(Duration.ofSeconds(10)).until(() -> monitor.flushCount() >= flushed + 2);
+        var stats = monitor.stats();
+        LOGGER.log(Level.INFO, "pinning stats: {0}", stats);
+        assertThat(stats.pinnedEvents()).isZero();
+        assertThat(stats.submitFailures()).isZero();
+    }
+
+    private static void sleepHoldingMonitor(Object lock) {
+        synchronized (lock) {
+            sleep(Duration.ofMillis(10));
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // a client on a slow network, every write blocks the sending thread
+    static class SlowSseEventSink extends TestSseEventSink {
+        private final LongAdder delivered;
+
+        SlowSseEventSink(LongAdder delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            sleep(Duration.ofMillis(1));
+            delivered.increment();
+            return super.send(event);
+        }
+    }
+
+    static class MapLeaseStore implements LeaseStore {
+        private final Map<String, Instant> leases = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean tryAcquire(String name, String owner, Instant now, Instant lockedUntil) {
+            var current = leases.get(name);
+            if (current != null && current.isAfter(now)) {
+                return false;
+            }
+            return current == null
+                    ? leases.putIfAbsent(name, lockedUntil) == null
+                    : leases.replace(name, current, lockedUntil);
+        }
+
+        @Override
+        public void release(String name, String owner, Instant now, Instant lockedUntil) {
+            leases.put(name, lockedUntil);
+        }
+    }
+}
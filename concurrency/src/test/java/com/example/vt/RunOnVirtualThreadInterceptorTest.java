@@ -0,0 +1,227 @@
+package com.example.vt;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunOnVirtualThreadInterceptorTest {
+    private static final Logger LOGGER = Logger.getLogger(RunOnVirtualThreadInterceptorTest.class.getName());
+
+    @Test
+    void testMethodRunsOnVirtualThread() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var interceptor = new RunOnVirtualThreadInterceptor(executor);
+            var response = new TestAsyncResponse();
+            var ranOn = new AtomicReference<Thread>();
+
+            Object returned = interceptor.runOnVirtualThread(new TestInvocationContext(() -> {
+                ranOn.set(Thread.currentThread());
+                response.resume("done");
+                return null;
+            }, response));
+
+            assertThat(returned).isNull();
+            assertThat(response.resumed.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+            assertThat(ranOn.get().isVirtual()).isTrue();
+        }
+    }
+
+    @Test
+    void testFailureResumesTheResponse() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var interceptor = new RunOnVirtualThreadInterceptor(executor);
+            var response = new TestAsyncResponse();
+
+            interceptor.runOnVirtualThread(new TestInvocationContext(() -> {
+                throw new IllegalStateException("redis is down");
+            }, response));
+
+            try {
+                response.resumed.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+            }
+            assertThat(response.resumed.isCompletedExceptionally()).isTrue();
+        }
+    }
+
+    @Test
+    void testRejectedRequestIsUnavailable() throws Exception {
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("executor is full");
+        };
+        var interceptor = new RunOnVirtualThreadInterceptor(rejecting);
+        var response = new TestAsyncResponse();
+
+        interceptor.runOnVirtualThread(new TestInvocationContext(() -> null, response));
+
+        assertThat(response.isCancelled()).isTrue();
+    }
+
+    @Test
+    void testUnlimitedMethodBypassesTheLimitedExecutor() throws Exception {
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("over the limit");
+        };
+        try (var unlimited = Executors.newVirtualThreadPerTaskExecutor()) {
+            var interceptor = new RunOnVirtualThreadInterceptor(rejecting, unlimited);
+            var streaming = new TestAsyncResponse();
+            var limited = new TestAsyncResponse();
+
+            interceptor.runOnVirtualThread(new TestInvocationContext(() -> streaming.resume("streamed"), streaming)
+                    .on(Resource.class.getMethod("stream", AsyncResponse.class)));
+            interceptor.runOnVirtualThread(new TestInvocationContext(() -> limited.resume("ok"), limited)
+                    .on(Resource.class.getMethod("get", AsyncResponse.class)));
+
+            assertThat(streaming.resumed.get(5, TimeUnit.SECONDS)).isEqualTo("streamed");
+            assertThat(limited.isCancelled()).isTrue();
+        }
+    }
+
+    public static class Resource {
+        @RunOnVirtualThread(limited = false)
+        public void stream(AsyncResponse response) {
+        }
+
+        @RunOnVirtualThread
+        public void get(AsyncResponse response) {
+        }
+    }
+
+    @Test
+    void testMethodWithoutAsyncResponseRunsInline() throws Exception {
+        var interceptor = new RunOnVirtualThreadInterceptor(task -> {
+            throw new AssertionError("must not be offloaded");
+        });
+        var caller = Thread.currentThread();
+
+        Object returned = interceptor.runOnVirtualThread(new TestInvocationContext(() -> Thread.currentThread() == caller));
+
+        assertThat(returned).isEqualTo(true);
+    }
+
+    // more blocking calls are in flight than there are request threads, each of them only returns once
+    // all of them have started, which could not happen if they held their request thread.
+    @Test
+    void testBlockingCallsDoNotHoldTheRequestThreads() throws Exception {
+        int requestThreads = 4;
+        int requests = 4 * requestThreads;
+        var allStarted = new CountDownLatch(requests);
+        try (ExecutorService requestPool = Executors.newFixedThreadPool(requestThreads);
+             ExecutorService vtExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var interceptor = new RunOnVirtualThreadInterceptor(vtExecutor);
+            var done = new CompletableFuture<?>[requests];
+            for (int i = 0; i < requests; i++) {
+                var response = new TestAsyncResponse();
+                done[i] = response.resumed;
+                requestPool.execute(() -> {
+                    try {
+                        interceptor.runOnVirtualThread(new TestInvocationContext(() -> {
+                            allStarted.countDown();
+                            return response.resume(allStarted.await(10, TimeUnit.SECONDS));
+                        }, (AsyncResponse) response));
+                    } catch (Exception e) {
+                        response.resume(e);
+                    }
+                });
+            }
+            CompletableFuture.allOf(done).get(30, TimeUnit.SECONDS);
+
+            assertThat(Arrays.stream(done).map(CompletableFuture::join).allMatch(Boolean.TRUE::equals)).isTrue();
+        }
+    }
+
+    // 2000 concurrent requests on a pool of 200 request threads, the backing call sleeps 50 ms.
+    @Test
+    @Tag("benchmark")
+    void testLoadAgainstPlatformThreads() throws Exception {
+        int requests = 2_000;
+        int requestThreads = 200;
+        Duration backingCall = Duration.ofMillis(50);
+
+        // the first round starts the request threads, only the second one is measured.
+        Result platform;
+        try (ExecutorService requestPool = Executors.newFixedThreadPool(requestThreads)) {
+            load(requestPool, null, requests, backingCall);
+            platform = load(requestPool, null, requests, backingCall);
+        }
+        Result virtual;
+        try (ExecutorService requestPool = Executors.newFixedThreadPool(requestThreads);
+             ExecutorService vtExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var interceptor = new RunOnVirtualThreadInterceptor(vtExecutor);
+            load(requestPool, interceptor, requests, backingCall);
+            virtual = load(requestPool, interceptor, requests, backingCall);
+        }
+
+        LOGGER.log(Level.INFO, "platform threads: {0}", platform);
+        LOGGER.log(Level.INFO, "virtual threads: {0}", virtual);
+        assertThat(platform.maxConcurrency()).isLessThanOrEqualTo(requestThreads);
+        assertThat(virtual.maxConcurrency()).isGreaterThan(requestThreads);
+        assertThat(virtual.p99Millis()).isLessThan(platform.p99Millis());
+    }
+
+    record Result(long p50Millis, long p99Millis, long maxMillis, long maxConcurrency) {
+    }
+
+    // without an interceptor the method runs on the request thread, as a plain synchronous resource method.
+    private static Result load(ExecutorService requestPool,
+                               RunOnVirtualThreadInterceptor interceptor,
+                               int requests,
+                               Duration backingCall) throws Exception {
+        var inFlight = new AtomicInteger();
+        var maxConcurrency = new LongAccumulator(Math::max, 0);
+        long[] latencies = new long[requests];
+        var done = new CompletableFuture<?>[requests];
+
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            long received = System.nanoTime();
+            var response = new TestAsyncResponse();
+            done[i] = response.resumed.whenComplete((r, e) -> latencies[request] = System.nanoTime() - received);
+            requestPool.execute(() -> {
+                var context = new TestInvocationContext(() -> {
+                    maxConcurrency.accumulate(inFlight.incrementAndGet());
+                    Thread.sleep(backingCall);
+                    inFlight.decrementAndGet();
+                    return response.resume("ok");
+                }, (AsyncResponse) response);
+                try {
+                    if (interceptor == null) {
+                        context.proceed();
+                    } else {
+                        interceptor.runOnVirtualThread(context);
+                    }
+                } catch (Exception e) {
+                    response.resume(e);
+                }
+            });
+        }
+        CompletableFuture.allOf(done).get(60, TimeUnit.SECONDS);
+
+        Arrays.sort(latencies);
+        return new Result(
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (requests * 0.99) - 1]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests - 1]),
+                maxConcurrency.get()
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.vt;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Records what a resource method resumed its response with.
+class TestAsyncResponse implements AsyncResponse {
+    final CompletableFuture<Object> resumed = new CompletableFuture<>();
+
+    @Override
+    public boolean resume(Object response) {
+        return resumed.complete(response);
+    }
+
+    @Override
+    public boolean resume(Throwable response) {
+        return resumed.completeExceptionally(response);
+    }
+
+    @Override
+    public boolean cancel() {
+        return resumed.cancel(false);
+    }
+
+    @Override
+    public boolean cancel(int retryAfter) {
+        return cancel();
+    }
+
+    @Override
+    public boolean cancel(Date retryAfter) {
+        return cancel();
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return !resumed.isDone();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return resumed.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return resumed.isDone();
+    }
+
+    @Override
+    public boolean setTimeout(long time, TimeUnit unit) {
+        return true;
+    }
+
+    @Override
+    public void setTimeoutHandler(TimeoutHandler handler) {
+    }
+
+    @Override
+    public Collection<Class<?>> register(Class<?> callback) {
+        return Set.of();
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+        return Map.of();
+    }
+
+    @Override
+    public Collection<Class<?>> register(Object callback) {
+        return Set.of();
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+        return Map.of();
+    }
+}
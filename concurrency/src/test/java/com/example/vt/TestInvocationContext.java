@@ -0,0 +1,67 @@
+package com.example.vt;
+
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+// Stands for the container invocation of a resource method, `proceed` calls the given body.
+class TestInvocationContext implements InvocationContext {
+    private final Callable<Object> body;
+    private Object[] parameters;
+    private Method method;
+    private final Map<String, Object> contextData = new HashMap<>();
+
+    TestInvocationContext(Callable<Object> body, Object... parameters) {
+        this.body = body;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public Object getTarget() {
+        return null;
+    }
+
+    @Override
+    public Object getTimer() {
+        return null;
+    }
+
+    TestInvocationContext on(Method method) {
+        this.method = method;
+        return this;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Constructor<?> getConstructor() {
+        return null;
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public void setParameters(Object[] params) {
+        this.parameters = params;
+    }
+
+    @Override
+    public Map<String, Object> getContextData() {
+        return contextData;
+    }
+
+    @Override
+    public Object proceed() throws Exception {
+        return body.call();
+    }
+}
@@ -2,14 +2,18 @@ package com.example.blog;
 
 import com.example.domain.Comment;
 import com.example.domain.Post;
+import com.example.domain.PostSummary;
 import com.example.domain.Status;
 import jakarta.data.Limit;
 import jakarta.data.Order;
+import jakarta.data.page.CursoredPage;
 import jakarta.data.page.Page;
 import jakarta.data.page.PageRequest;
 import jakarta.data.repository.*;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -48,6 +52,55 @@ public interface Blogger {
             """)
     Page<Post> allPosts(@Param("title") String title, PageRequest page);
 
+    // keyset pagination, a page continues after the (createdAt, id) of the last post of the previous one
+    // instead of skipping its rows, the id breaks the ties between posts created at the same time.
+    // the sort criteria of cursor-based pagination must come from @OrderBy, not from the query.
+    @Query("""
+            SELECT this FROM Post
+            WHERE title LIKE :title
+            """)
+    @OrderBy(value = "createdAt", descending = true)
+    @OrderBy(value = "id", descending = true)
+    CursoredPage<Post> allPostsByCursor(@Param("title") String title, PageRequest page);
+
+    EntityManager entityManager();
+
+    // the list view only needs a few columns, the constructor expression keeps the content column out of the
+    // select and no entity is managed. Without projections in Jakarta Data 1.0 the query goes to the EntityManager,
+    // it pages by the same (createdAt, id) key as allPostsByCursor.
+    default List<PostSummary> summaries(String title, PageRequest.Cursor after, int limit) {
+        var where = after == null
+                ? "WHERE p.title LIKE :title"
+                : """
+                  WHERE p.title LIKE :title
+                  AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+                  """;
+        var query = entityManager()
+                .createQuery("""
+                        SELECT new com.example.domain.PostSummary(p.id, p.title, p.status, p.createdAt)
+                        FROM Post p
+                        %s
+                        ORDER BY p.createdAt DESC, p.id DESC
+                        """.formatted(where), PostSummary.class)
+                .setParameter("title", title)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("createdAt", after.get(0)).setParameter("id", after.get(1));
+        }
+        return query.getResultList();
+    }
+
+    default List<PostSummary> summaries(Collection<UUID> ids) {
+        return entityManager()
+                .createQuery("""
+                        SELECT new com.example.domain.PostSummary(p.id, p.title, p.status, p.createdAt)
+                        FROM Post p
+                        WHERE p.id IN :ids
+                        """, PostSummary.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     @Find
     @OrderBy("createdAt")
     List<Post> byStatus(Status status, Order<Post> order, Limit limit);
@@ -58,6 +111,11 @@ public interface Blogger {
     @Insert
     Post insert(Post post);
 
+    // one call for many posts, the inserts are sent as JDBC batches, see the batch settings in persistence.xml.
+    // the whole list is persisted in one go, use BlogImporter for imports too large to keep in memory.
+    @Insert
+    List<Post> insertAll(List<Post> posts);
+
     @Update
     Post update(Post post);
 
@@ -80,4 +138,7 @@ public interface Blogger {
 
     @Insert
     Comment insert(Comment comment);
+
+    @Insert
+    List<Comment> insertAllComments(List<Comment> comments);
 }
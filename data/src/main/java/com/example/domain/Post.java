@@ -16,7 +16,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "posts")
+@EntityListeners(PostListener.class)
+@Table(name = "posts", indexes = {
+        // serves the keyset pagination of Blogger.allPostsByCursor
+        @Index(name = "idx_posts_created_at_id", columnList = "createdAt DESC, id DESC")
+})
 public class Post implements Serializable {
 
     @Id
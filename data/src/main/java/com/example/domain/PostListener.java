@@ -0,0 +1,26 @@
+package com.example.domain;
+
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Publishes the title changes of posts as CDI events, the observers can use `TransactionPhase.AFTER_SUCCESS`
+// to only see the changes which were committed.
+public class PostListener {
+
+    @Inject
+    Event<PostTitleChanged> titleChanged;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Post post) {
+        titleChanged.fire(new PostTitleChanged(post.getId(), post.getTitle()));
+    }
+
+    @PostRemove
+    public void removed(Post post) {
+        titleChanged.fire(new PostTitleChanged(post.getId(), null));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.domain;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
-public record PostSummary(UUID id, String title) {
+public record PostSummary(UUID id, String title, Status status, LocalDateTime createdAt) {
 }
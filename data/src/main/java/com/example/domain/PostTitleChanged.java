@@ -0,0 +1,11 @@
+package com.example.domain;
+
+import java.util.UUID;
+
+// fired when a post is saved or removed, `title` is null for a removed post.
+public record PostTitleChanged(UUID id, String title) {
+
+    public boolean removed() {
+        return title == null;
+    }
+}
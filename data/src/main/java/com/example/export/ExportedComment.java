@@ -0,0 +1,9 @@
+package com.example.export;
+
+import jakarta.json.bind.annotation.JsonbTransient;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ExportedComment(@JsonbTransient UUID postId, UUID id, String content, LocalDateTime createdAt) {
+}
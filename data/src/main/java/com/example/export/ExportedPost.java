@@ -0,0 +1,25 @@
+package com.example.export;
+
+import com.example.domain.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record ExportedPost(UUID id,
+                           String title,
+                           String content,
+                           Status status,
+                           LocalDateTime createdAt,
+                           LocalDateTime lastModifiedAt,
+                           List<ExportedComment> comments) {
+
+    // the shape of the query rows, the comments are added per chunk
+    public ExportedPost(UUID id, String title, String content, Status status, LocalDateTime createdAt, LocalDateTime lastModifiedAt) {
+        this(id, title, content, status, createdAt, lastModifiedAt, List.of());
+    }
+
+    ExportedPost withComments(List<ExportedComment> comments) {
+        return new ExportedPost(id, title, content, status, createdAt, lastModifiedAt, comments);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.export;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// Writes all the posts, each with its comments, as newline delimited JSON.
+// The posts are read in chunks of `blog.export.chunkSize` by their (createdAt, id) key, the rows go straight into
+// records, no entity is managed, and each chunk is flushed to the client before the next one is read,
+// the memory used does not depend on the number of posts.
+@ApplicationScoped
+public class PostExporter {
+    private static final Logger LOGGER = Logger.getLogger(PostExporter.class.getName());
+    static final int CHUNK_SIZE = Integer.getInteger("blog.export.chunkSize", 1_000);
+
+    private static final String POSTS = """
+            SELECT new com.example.export.ExportedPost(p.id, p.title, p.content, p.status, p.createdAt, p.lastModifiedAt)
+            FROM Post p
+            %s
+            ORDER BY p.createdAt, p.id
+            """;
+    private static final String AFTER = "WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)";
+    private static final String COMMENTS = """
+            SELECT new com.example.export.ExportedComment(c.post.id, c.id, c.content, c.createdAt)
+            FROM Comment c
+            WHERE c.post.id IN :postIds
+            ORDER BY c.createdAt, c.id
+            """;
+
+    private final Jsonb jsonb = JsonbBuilder.create();
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    public long export(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long exported = 0;
+        ExportedPost last = null;
+        List<ExportedPost> chunk;
+        do {
+            chunk = posts(last);
+            for (ExportedPost post : withComments(chunk)) {
+                // not toJson(post, writer), it closes the writer once done
+                writer.write(jsonb.toJson(post));
+                writer.write('\n');
+            }
+            writer.flush();
+            exported += chunk.size();
+            last = chunk.isEmpty() ? last : chunk.getLast();
+        } while (chunk.size() == CHUNK_SIZE);
+        return exported;
+    }
+
+    private List<ExportedPost> posts(ExportedPost after) {
+        var query = entityManager
+                .createQuery(POSTS.formatted(after == null ? "" : AFTER), ExportedPost.class)
+                .setMaxResults(CHUNK_SIZE)
+                // read the chunk in one go rather than in the driver's default fetch size
+                .setHint("eclipselink.jdbc.fetch-size", CHUNK_SIZE)
+                .setHint("org.hibernate.fetchSize", CHUNK_SIZE);
+        if (after != null) {
+            query.setParameter("createdAt", after.createdAt()).setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+
+    private List<ExportedPost> withComments(List<ExportedPost> posts) {
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        var comments = entityManager
+                .createQuery(COMMENTS, ExportedComment.class)
+                .setParameter("postIds", posts.stream().map(ExportedPost::id).toList())
+                .getResultList()
+                .stream()
+                .collect(Collectors.groupingBy(ExportedComment::postId));
+        return posts.stream().map(post -> post.withComments(comments.getOrDefault(post.id(), List.of()))).toList();
+    }
+
+    // lifecycle callbacks must not throw checked exceptions
+    @PreDestroy
+    void close() {
+        try {
+            jsonb.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "failed to close Jsonb", e);
+        }
+    }
+}
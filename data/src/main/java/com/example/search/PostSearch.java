@@ -0,0 +1,66 @@
+package com.example.search;
+
+import com.example.blog.Blogger;
+import com.example.domain.PostSummary;
+import com.example.domain.PostTitleChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Startup;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// Title search backed by the in-memory TitleIndex, built from the database at startup and then kept up to date
+// with the committed changes of the posts.
+@ApplicationScoped
+public class PostSearch {
+    private static final Logger LOGGER = Logger.getLogger(PostSearch.class.getName());
+
+    private final TitleIndex index = new TitleIndex();
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Inject
+    Blogger blogger;
+
+    public void rebuild(@Observes Startup event) {
+        long start = System.nanoTime();
+        try (var titles = entityManager.createQuery("SELECT p.id, p.title FROM Post p", Object[].class).getResultStream()) {
+            titles.forEach(row -> index.index((UUID) row[0], (String) row[1]));
+        }
+        LOGGER.log(Level.INFO, "indexed {0} post titles in {1} ms",
+                new Object[]{index.size(), (System.nanoTime() - start) / 1_000_000});
+    }
+
+    public void onTitleChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PostTitleChanged event) {
+        if (event.removed()) {
+            index.remove(event.id());
+        } else {
+            index.index(event.id(), event.title());
+        }
+    }
+
+    // the posts matching all the words of the query, best match first.
+    public List<PostSummary> search(String query, int limit) {
+        var hits = index.search(query, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, PostSummary> summaries = blogger.summaries(hits.stream().map(SearchHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(PostSummary::id, Function.identity()));
+        // bulk deletes do not call the entity listeners, drop the posts which are gone while we are at it.
+        hits.stream().map(SearchHit::id).filter(id -> !summaries.containsKey(id)).forEach(index::remove);
+        return hits.stream().map(hit -> summaries.get(hit.id())).filter(summary -> summary != null).toList();
+    }
+}
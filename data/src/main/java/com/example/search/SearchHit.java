@@ -0,0 +1,6 @@
+package com.example.search;
+
+import java.util.UUID;
+
+public record SearchHit(UUID id, double score) {
+}
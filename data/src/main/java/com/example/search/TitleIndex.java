@@ -0,0 +1,136 @@
+package com.example.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// An in-memory inverted index of post titles: every word of a title maps to the ids of the posts containing it.
+// A query matches the posts containing all of its words, the words of the query also match as prefixes,
+// "jak" finds "Jakarta". The hits are ranked by how rare the matched words are and how short the title is.
+public class TitleIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // shorter query words only match whole words, a one letter prefix would match most of the index.
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    // word -> ids of the posts which titles contain it, sorted so prefixes are a range of keys.
+    private final ConcurrentSkipListMap<String, Set<UUID>> postings = new ConcurrentSkipListMap<>();
+    // id -> words of the title, to unlink a post from its old words when its title changes.
+    private final ConcurrentHashMap<UUID, Set<String>> words = new ConcurrentHashMap<>();
+
+    public void index(UUID id, String title) {
+        var newWords = tokenize(title);
+        words.compute(id, (key, oldWords) -> {
+            if (oldWords != null) {
+                oldWords.stream().filter(word -> !newWords.contains(word)).forEach(word -> unlink(word, id));
+            }
+            newWords.forEach(word -> postings.computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(id));
+            return newWords;
+        });
+    }
+
+    public void remove(UUID id) {
+        words.computeIfPresent(id, (key, oldWords) -> {
+            oldWords.forEach(word -> unlink(word, id));
+            return null;
+        });
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        var queryWords = tokenize(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        var terms = queryWords.stream().map(this::term).sorted(Comparator.comparingLong(Term::matches)).toList();
+        if (terms.getFirst().matches() == 0) {
+            return List.of();
+        }
+
+        // start from the rarest word and check the others only for its posts.
+        double total = Math.max(words.size(), 1);
+        var top = new PriorityQueue<SearchHit>(Comparator.comparingDouble(SearchHit::score).thenComparing(SearchHit::id));
+        terms.getFirst().ids().forEach(id -> {
+            double score = 0;
+            for (Term term : terms) {
+                double weight = term.weight(id);
+                if (weight == 0) {
+                    return;
+                }
+                score += weight * Math.log(1 + total / term.matches());
+            }
+            var titleWords = words.get(id);
+            if (titleWords == null) {
+                return;
+            }
+            top.add(new SearchHit(id, score / Math.sqrt(titleWords.size())));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        var hits = new ArrayList<>(top);
+        hits.sort(top.comparator().reversed());
+        return hits;
+    }
+
+    private Term term(String word) {
+        var exact = postings.getOrDefault(word, Set.of());
+        Collection<Set<UUID>> prefixed = word.length() < MIN_PREFIX_LENGTH
+                ? List.of()
+                : postings.subMap(word, false, word + Character.MAX_VALUE, false).values();
+        long matches = exact.size();
+        for (Set<UUID> ids : prefixed) {
+            matches += ids.size();
+        }
+        return new Term(exact, prefixed, matches);
+    }
+
+    // the posts of a query word, whole word matches weigh twice as much as prefix matches.
+    private record Term(Set<UUID> exact, Collection<Set<UUID>> prefixed, long matches) {
+
+        Iterable<UUID> ids() {
+            if (prefixed.isEmpty()) {
+                return exact;
+            }
+            var ids = new HashSet<>(exact);
+            prefixed.forEach(ids::addAll);
+            return ids;
+        }
+
+        double weight(UUID id) {
+            if (exact.contains(id)) {
+                return 1;
+            }
+            for (Set<UUID> ids : prefixed) {
+                if (ids.contains(id)) {
+                    return 0.5;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private void unlink(String word, UUID id) {
+        postings.computeIfPresent(word, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        var tokens = new HashSet<String>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return Set.copyOf(tokens);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.service;
+
+import com.example.domain.Post;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.UserTransaction;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+// Inserts large amounts of posts, with their comments, in chunks:
+// - the persistence context is flushed and cleared every `blog.import.batchSize` posts, a flush sends the pending
+//   inserts as JDBC batches, keep it in line with the batch size of the persistence unit.
+// - a transaction is committed every `blog.import.commitSize` posts, a failure rolls back the current chunk only.
+// The posts use generated UUIDs, their ids are known without a round trip and the inserts can be batched,
+// IDENTITY columns would defeat the JDBC batching.
+@ApplicationScoped
+public class BlogImporter {
+    private static final Logger LOGGER = Logger.getLogger(BlogImporter.class.getName());
+
+    static final int BATCH_SIZE = Integer.getInteger("blog.import.batchSize", 50);
+    static final int COMMIT_SIZE = Integer.getInteger("blog.import.commitSize", 10_000);
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Inject
+    UserTransaction transaction;
+
+    public ImportResult importPosts(Stream<Post> posts) {
+        long start = System.nanoTime();
+        long postCount = 0;
+        long commentCount = 0;
+        long committed = 0;
+        Iterator<Post> iterator = posts.iterator();
+        try {
+            while (iterator.hasNext()) {
+                transaction.begin();
+                entityManager.joinTransaction();
+                for (int i = 0; i < COMMIT_SIZE && iterator.hasNext(); i++) {
+                    Post post = iterator.next();
+                    if (post.getComments() != null) {
+                        post.getComments().forEach(comment -> comment.setPost(post));
+                        commentCount += post.getComments().size();
+                    }
+                    entityManager.persist(post);
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                    postCount++;
+                }
+                transaction.commit();
+                committed = postCount;
+                entityManager.clear();
+                LOGGER.log(Level.FINE, "imported {0} posts", postCount);
+            }
+        } catch (Exception e) {
+            rollback();
+            throw new IllegalStateException("import failed after %d committed posts".formatted(committed), e);
+        }
+        var result = new ImportResult(postCount, commentCount, Duration.ofNanos(System.nanoTime() - start));
+        LOGGER.log(Level.INFO, "imported {0} posts and {1} comments in {2} ms, {3} rows/s",
+                new Object[]{result.posts(), result.comments(), result.elapsed().toMillis(), (long) result.rowsPerSecond()});
+        return result;
+    }
+
+    private void rollback() {
+        try {
+            if (transaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                transaction.rollback();
+            }
+        } catch (SystemException e) {
+            LOGGER.log(Level.WARNING, "rollback failed: {0}", e.getMessage());
+        }
+    }
+}
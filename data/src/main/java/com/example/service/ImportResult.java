@@ -0,0 +1,14 @@
+package com.example.service;
+
+import java.time.Duration;
+
+public record ImportResult(long posts, long comments, Duration elapsed) {
+
+    public long rows() {
+        return posts + comments;
+    }
+
+    public double rowsPerSecond() {
+        return elapsed.isZero() ? rows() : rows() * 1_000_000_000.0 / elapsed.toNanos();
+    }
+}
@@ -2,5 +2,6 @@ package com.example.web;
 
 import java.util.List;
 
-public record PaginatedResult<T>(List<T> data, long total) {
+// `total` is only set when it was asked for, `next` is the cursor of the following page, if any.
+public record PaginatedResult<T>(List<T> data, Long total, String next) {
 }
@@ -0,0 +1,39 @@
+package com.example.web;
+
+import jakarta.data.page.PageRequest;
+import jakarta.ws.rs.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// The (createdAt, id) key of the last post of a page, handed to the client as an opaque string.
+final class PostCursor {
+    private static final char SEPARATOR = '_';
+
+    private PostCursor() {
+    }
+
+    static String encode(PageRequest.Cursor cursor) {
+        var key = cursor.get(0) + String.valueOf(SEPARATOR) + cursor.get(1);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageRequest.Cursor decode(String value) {
+        try {
+            var key = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = key.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("no separator");
+            }
+            return PageRequest.Cursor.forKey(
+                    LocalDateTime.parse(key.substring(0, separator)),
+                    UUID.fromString(key.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("invalid cursor: " + value, e);
+        }
+    }
+}
@@ -1,34 +1,96 @@
 package com.example.web;
 
 import com.example.blog.Blogger;
+import com.example.export.PostExporter;
+import com.example.search.PostSearch;
 import jakarta.data.page.PageRequest;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import java.util.UUID;
 
 @RequestScoped
 @Path("/posts")
 public class PostResources {
+    // the largest page a client can ask for.
+    static final int MAX_PAGE_SIZE = Integer.getInteger("posts.maxPageSize", 100);
 
     @Inject
     Blogger blogger;
 
+    @Inject
+    PostSearch postSearch;
+
+    @Inject
+    PostExporter postExporter;
+
+    // pages are addressed by the cursor of the previous one, `GET /posts?after=<next>`,
+    // the total count costs an extra query, it is only computed on request.
     @GET
     @Path("")
     public Response getAll(
             @QueryParam("title") @DefaultValue("") String title,
-            @QueryParam("page") @DefaultValue("1") long page,
+            @QueryParam("after") String after,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @QueryParam("total") @DefaultValue("false") boolean total) {
+        checkPageSize(size);
+        var pageRequest = after == null || after.isBlank()
+                ? PageRequest.ofPage(1, size, total)
+                : PageRequest.afterCursor(PostCursor.decode(after), 1, size, total);
+        var data = this.blogger.allPostsByCursor("%" + title + "%", pageRequest);
+
+        var next = data.hasNext() ? PostCursor.encode(data.cursor(data.numberOfElements() - 1)) : null;
+        var totalElements = data.hasTotals() ? data.totalElements() : null;
+        return Response.ok(new PaginatedResult<>(data.content(), totalElements, next)).build();
+    }
+
+    // id, title, status and createdAt of the posts, paged like `GET /posts` but without reading the content.
+    @GET
+    @Path("/summaries")
+    public Response getSummaries(
+            @QueryParam("title") @DefaultValue("") String title,
+            @QueryParam("after") String after,
             @QueryParam("size") @DefaultValue("10") int size) {
-        var data = this.blogger
-                .allPosts(
-                        "%" + title + "%",
-                        PageRequest.ofPage(page, size, true)
-                );
+        checkPageSize(size);
+        var cursor = after == null || after.isBlank() ? null : PostCursor.decode(after);
+        // one extra row tells whether there is a next page
+        var summaries = this.blogger.summaries("%" + title + "%", cursor, size + 1);
+
+        String next = null;
+        if (summaries.size() > size) {
+            summaries = summaries.subList(0, size);
+            var last = summaries.getLast();
+            next = PostCursor.encode(PageRequest.Cursor.forKey(last.createdAt(), last.id()));
+        }
+        return Response.ok(new PaginatedResult<>(summaries, null, next)).build();
+    }
+
+    // the posts which titles contain all the words of `q`, best match first, served by the title index
+    // instead of a `LIKE '%q%'` scan of the posts table.
+    @GET
+    @Path("/search")
+    public Response search(
+            @QueryParam("q") @DefaultValue("") String q,
+            @QueryParam("limit") @DefaultValue("20") int limit) {
+        return Response.ok(this.postSearch.search(q, Math.min(limit, 100))).build();
+    }
+
+    // all the posts with their comments, one JSON object per line, written while they are read.
+    @GET
+    @Path("/export")
+    @Produces("application/x-ndjson")
+    public Response export() {
+        StreamingOutput body = this.postExporter::export;
+        return Response.ok(body).build();
+    }
 
-        return Response.ok(new PaginatedResult<>(data.content(), data.totalElements())).build();
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
     }
 
     @GET
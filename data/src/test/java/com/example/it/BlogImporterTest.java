@@ -0,0 +1,153 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+package com.example.it;
+
+import com.example.blog.Blogger;
+import com.example.domain.Comment;
+import com.example.domain.Post;
+import com.example.repository.PostRepository;
+import com.example.service.BlogImporter;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.UserTransaction;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(ArquillianExtension.class)
+public class BlogImporterTest {
+
+    private final static Logger LOGGER = Logger.getLogger(BlogImporterTest.class.getName());
+
+    // the test runs in the server, start it with e.g. -Dit.import.posts=2000000 for the full size import.
+    private final static int POSTS = Integer.getInteger("it.import.posts", 20_000);
+    private final static int COMMENTS_PER_POST = 2;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "BlogImporterTest.war")
+                .addPackage(Post.class.getPackage())
+                .addPackage(Blogger.class.getPackage())
+                .addPackage(PostRepository.class.getPackage())
+                .addPackage(BlogImporter.class.getPackage())
+                .addAsResource("test-persistence.xml", "META-INF/persistence.xml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        LOGGER.log(Level.INFO, war.toString(true));
+        return war;
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private BlogImporter importer;
+
+    @Inject
+    private Blogger blogger;
+
+    @Inject
+    UserTransaction ux;
+
+    @AfterEach
+    public void after() throws Exception {
+        ux.begin();
+        em.joinTransaction();
+        em.createQuery("DELETE FROM Comment").executeUpdate();
+        em.createQuery("DELETE FROM Post").executeUpdate();
+        ux.commit();
+    }
+
+    @Test
+    public void testImportPostsWithComments() throws Exception {
+        var result = importer.importPosts(IntStream.range(0, POSTS).mapToObj(BlogImporterTest::post));
+
+        assertEquals(POSTS, result.posts());
+        assertEquals((long) POSTS * COMMENTS_PER_POST, result.comments());
+        assertEquals((long) POSTS, count("SELECT COUNT(p) FROM Post p"));
+        assertEquals((long) POSTS * COMMENTS_PER_POST, count("SELECT COUNT(c) FROM Comment c"));
+        LOGGER.log(Level.INFO, "batched import: {0} rows in {1} ms, {2} rows/s",
+                new Object[]{result.rows(), result.elapsed().toMillis(), (long) result.rowsPerSecond()});
+    }
+
+    // what the import amounted to before, one transaction per post and per comment.
+    @Test
+    public void testImportOneByOne() throws Exception {
+        int posts = Math.max(POSTS / 10, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < posts; i++) {
+            var post = post(i);
+            var comments = post.getComments();
+            post.setComments(null);
+            blogger.insert(post);
+            for (Comment comment : comments) {
+                comment.setPost(post);
+                blogger.insert(comment);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long rows = (long) posts * (1 + COMMENTS_PER_POST);
+
+        assertEquals((long) posts, count("SELECT COUNT(p) FROM Post p"));
+        LOGGER.log(Level.INFO, "one by one: {0} rows in {1} ms, {2} rows/s",
+                new Object[]{rows, elapsed / 1_000_000, rows * 1_000_000_000L / elapsed});
+    }
+
+    @Test
+    public void testInsertAll() throws Exception {
+        var posts = IntStream.range(0, 100).mapToObj(BlogImporterTest::post)
+                .peek(post -> post.setComments(null))
+                .toList();
+
+        var inserted = blogger.insertAll(posts);
+
+        assertEquals(100, inserted.size());
+        inserted.forEach(post -> assertNotNull(post.getId()));
+        var comments = new ArrayList<Comment>();
+        inserted.forEach(post -> comments.add(Comment.builder().content("comment of " + post.getTitle()).post(post).build()));
+        assertEquals(100, blogger.insertAllComments(comments).size());
+        assertEquals(100L, count("SELECT COUNT(c) FROM Comment c"));
+    }
+
+    private long count(String query) {
+        return em.createQuery(query, Long.class).getSingleResult();
+    }
+
+    private static Post post(int i) {
+        List<Comment> comments = Stream.iterate(0, c -> c < COMMENTS_PER_POST, c -> c + 1)
+                .map(c -> Comment.builder().content("comment " + c + " of post " + i).build())
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return Post.builder().title("imported post " + i).content("content of post " + i).comments(comments).build();
+    }
+}
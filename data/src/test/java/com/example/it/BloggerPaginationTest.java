@@ -0,0 +1,206 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+package com.example.it;
+
+import com.example.blog.Blogger;
+import com.example.domain.Post;
+import jakarta.data.page.CursoredPage;
+import jakarta.data.page.PageRequest;
+import jakarta.inject.Inject;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.UserTransaction;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(ArquillianExtension.class)
+public class BloggerPaginationTest {
+
+    private final static Logger LOGGER = Logger.getLogger(BloggerPaginationTest.class.getName());
+
+    // the test runs in the server, start it with e.g. -Dit.pagination.posts=5000000 for the large table.
+    private final static int POSTS = Integer.getInteger("it.pagination.posts", 2_000);
+    private final static int PAGE_SIZE = 10;
+    private final static int INSERT_BATCH_SIZE = 1_000;
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "BloggerPaginationTest.war")
+                .addPackage(Post.class.getPackage())
+                .addPackage(Blogger.class.getPackage())
+                .addAsResource("test-persistence.xml", "META-INF/persistence.xml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        LOGGER.log(Level.INFO, war.toString(true));
+        return war;
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private Blogger blogger;
+
+    @Inject
+    UserTransaction ux;
+
+    @BeforeEach
+    public void before() throws Exception {
+        for (int inserted = 0; inserted < POSTS; inserted += INSERT_BATCH_SIZE) {
+            ux.begin();
+            em.joinTransaction();
+            for (int i = inserted; i < Math.min(inserted + INSERT_BATCH_SIZE, POSTS); i++) {
+                em.persist(Post.builder().title("post " + i).content("content of post " + i).build());
+            }
+            ux.commit();
+            em.clear();
+        }
+        LOGGER.log(Level.INFO, "inserted {0} posts", POSTS);
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        ux.begin();
+        blogger.deleteAllPosts();
+        ux.commit();
+    }
+
+    @Test
+    public void testCursorWalksAllPostsOnce() throws Exception {
+        var ids = new HashSet<UUID>();
+        var pageTimes = new ArrayList<Long>();
+        Post previous = null;
+
+        PageRequest pageRequest = PageRequest.ofSize(PAGE_SIZE).withoutTotal();
+        CursoredPage<Post> page;
+        do {
+            long start = System.nanoTime();
+            page = blogger.allPostsByCursor("%", pageRequest);
+            pageTimes.add(System.nanoTime() - start);
+
+            for (Post post : page.content()) {
+                assertTrue(ids.add(post.getId()), "post returned twice: " + post.getId());
+                if (previous != null) {
+                    assertThat(post.getCreatedAt()).isBeforeOrEqualTo(previous.getCreatedAt());
+                }
+                previous = post;
+            }
+            pageRequest = page.hasNext() ? page.nextPageRequest() : null;
+        } while (pageRequest != null);
+
+        assertEquals(POSTS, ids.size());
+        assertFalse(page.hasTotals());
+        LOGGER.log(Level.INFO, "cursor pages, first: {0} us, last: {1} us, median: {2} us",
+                new Object[]{micros(pageTimes.getFirst()), micros(pageTimes.getLast()), micros(median(pageTimes))});
+    }
+
+    @Test
+    public void testTotalIsOnlyCountedOnRequest() throws Exception {
+        var withoutTotal = blogger.allPostsByCursor("%", PageRequest.ofSize(PAGE_SIZE).withoutTotal());
+        assertFalse(withoutTotal.hasTotals());
+
+        var withTotal = blogger.allPostsByCursor("%", PageRequest.ofSize(PAGE_SIZE).withTotal());
+        assertTrue(withTotal.hasTotals());
+        assertEquals(POSTS, withTotal.totalElements());
+    }
+
+    @Test
+    public void testSummariesFollowTheCursorOrder() throws Exception {
+        var posts = blogger.allPostsByCursor("%", PageRequest.ofSize(PAGE_SIZE * 3).withoutTotal()).content();
+
+        var first = blogger.summaries("%", null, PAGE_SIZE);
+        var last = first.getLast();
+        var second = blogger.summaries("%", PageRequest.Cursor.forKey(last.createdAt(), last.id()), PAGE_SIZE * 2);
+
+        var ids = new ArrayList<UUID>();
+        first.forEach(summary -> ids.add(summary.id()));
+        second.forEach(summary -> ids.add(summary.id()));
+        assertEquals(posts.stream().map(Post::getId).toList(), ids);
+    }
+
+    // the bytes of one list page as the REST resources would write them, full entities vs summaries.
+    @Test
+    public void testSummaryPageSize() throws Exception {
+        try (Jsonb jsonb = JsonbBuilder.create()) {
+            ux.begin();
+            var posts = blogger.allPostsByCursor("%", PageRequest.ofSize(PAGE_SIZE).withoutTotal()).content();
+            int postBytes = jsonb.toJson(posts).getBytes(StandardCharsets.UTF_8).length;
+            ux.commit();
+            int summaryBytes = jsonb.toJson(blogger.summaries("%", null, PAGE_SIZE)).getBytes(StandardCharsets.UTF_8).length;
+
+            LOGGER.log(Level.INFO, "{0} posts per page, entities: {1} bytes, summaries: {2} bytes",
+                    new Object[]{PAGE_SIZE, postBytes, summaryBytes});
+            assertThat(summaryBytes).isLessThan(postBytes);
+        }
+    }
+
+    // compares the latency of a deep page, the first page vs the last one, between the offset and keyset queries.
+    @Test
+    public void testDeepPageLatency() throws Exception {
+        long lastPage = (POSTS + PAGE_SIZE - 1) / PAGE_SIZE;
+        long offsetFirst = time(() -> blogger.allPosts("%", PageRequest.ofPage(1, PAGE_SIZE, false)));
+        long offsetLast = time(() -> blogger.allPosts("%", PageRequest.ofPage(lastPage, PAGE_SIZE, false)));
+
+        // the cursor of the last page is the key of the post right before it in the sort order.
+        var beforeLast = blogger.allPosts("%", PageRequest.ofPage(lastPage - 1, PAGE_SIZE, false)).content().getLast();
+        var cursor = PageRequest.Cursor.forKey(beforeLast.getCreatedAt(), beforeLast.getId());
+        long cursorFirst = time(() -> blogger.allPostsByCursor("%", PageRequest.ofSize(PAGE_SIZE).withoutTotal()));
+        long cursorLast = time(() -> blogger.allPostsByCursor("%", PageRequest.afterCursor(cursor, lastPage, PAGE_SIZE, false)));
+
+        LOGGER.log(Level.INFO, "page 1 vs page {0} of {1} posts, offset: {2} us / {3} us, cursor: {4} us / {5} us",
+                new Object[]{lastPage, POSTS, micros(offsetFirst), micros(offsetLast), micros(cursorFirst), micros(cursorLast)});
+        var last = blogger.allPostsByCursor("%", PageRequest.afterCursor(cursor, lastPage, PAGE_SIZE, false));
+        assertEquals(POSTS - (lastPage - 1) * PAGE_SIZE, last.numberOfElements());
+    }
+
+    private static long time(Runnable query) {
+        // warm up the statement cache first, only the second run is measured
+        query.run();
+        long start = System.nanoTime();
+        query.run();
+        return System.nanoTime() - start;
+    }
+
+    private static long median(List<Long> values) {
+        return values.stream().sorted().toList().get(values.size() / 2);
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+}
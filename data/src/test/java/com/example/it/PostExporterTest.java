@@ -0,0 +1,157 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+ */
+package com.example.it;
+
+import com.example.domain.Comment;
+import com.example.domain.Post;
+import com.example.export.PostExporter;
+import com.example.repository.PostRepository;
+import com.example.service.BlogImporter;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.UserTransaction;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(ArquillianExtension.class)
+public class PostExporterTest {
+
+    private final static Logger LOGGER = Logger.getLogger(PostExporterTest.class.getName());
+
+    // the test runs in the server, start it with e.g. -Dit.export.posts=1000000 -Xmx256m for the large export.
+    private final static int POSTS = Integer.getInteger("it.export.posts", 5_000);
+
+    @Deployment
+    public static WebArchive createDeployment() {
+        WebArchive war = ShrinkWrap.create(WebArchive.class, "PostExporterTest.war")
+                .addPackage(Post.class.getPackage())
+                .addPackage(PostRepository.class.getPackage())
+                .addPackage(BlogImporter.class.getPackage())
+                .addPackage(PostExporter.class.getPackage())
+                .addAsResource("test-persistence.xml", "META-INF/persistence.xml")
+                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+        LOGGER.log(Level.INFO, war.toString(true));
+        return war;
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Inject
+    private BlogImporter importer;
+
+    @Inject
+    private PostExporter exporter;
+
+    @Inject
+    UserTransaction ux;
+
+    @BeforeEach
+    public void before() {
+        importer.importPosts(IntStream.range(0, POSTS).mapToObj(i -> {
+            var comments = new ArrayList<Comment>();
+            if (i % 2 == 0) {
+                comments.add(Comment.builder().content("comment of post " + i).build());
+            }
+            return Post.builder().title("post " + i).content("content of post " + i).comments(comments).build();
+        }));
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        ux.begin();
+        em.joinTransaction();
+        em.createQuery("DELETE FROM Comment").executeUpdate();
+        em.createQuery("DELETE FROM Post").executeUpdate();
+        ux.commit();
+    }
+
+    @Test
+    public void testExportWritesEveryPostOnce() throws Exception {
+        var output = new ByteArrayOutputStream();
+        long exported = exporter.export(output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(POSTS, exported);
+        assertEquals(POSTS, lines.size());
+        assertEquals(POSTS, lines.stream().distinct().count());
+        assertEquals(POSTS / 2 + POSTS % 2, lines.stream().filter(line -> line.contains("comment of post")).count());
+        assertThat(lines).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+    }
+
+    // the export only keeps a chunk in memory, the heap used stays flat however many posts are written.
+    @Test
+    public void testExportMemory() throws Exception {
+        var counting = new OutputStream() {
+            long bytes;
+            long lines;
+
+            @Override
+            public void write(int b) {
+                bytes++;
+                if (b == '\n') {
+                    lines++;
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+                for (int i = off; i < off + len; i++) {
+                    if (b[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        };
+        var runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+
+        exporter.export(counting);
+
+        long elapsed = System.nanoTime() - start;
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        assertEquals(POSTS, counting.lines);
+        LOGGER.log(Level.INFO, "exported {0} posts, {1} bytes in {2} ms, heap used before: {3} MB, after: {4} MB, max: {5} MB",
+                new Object[]{counting.lines, counting.bytes, elapsed / 1_000_000,
+                        usedBefore >> 20, usedAfter >> 20, runtime.maxMemory() >> 20});
+    }
+}
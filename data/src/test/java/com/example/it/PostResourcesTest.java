@@ -21,6 +21,8 @@ package com.example.it;
 import com.example.domain.Post;
 import com.example.blog.Blogger;
 import com.example.repository.PostRepository;
+import com.example.export.PostExporter;
+import com.example.search.PostSearch;
 import com.example.web.PostResources;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
@@ -45,6 +47,7 @@ import java.net.URL;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @ExtendWith(ArquillianExtension.class)
@@ -66,6 +69,8 @@ public class PostResourcesTest {
                 .addPackage(Post.class.getPackage())
                 .addPackage(Blogger.class.getPackage())
                 .addPackage(PostResources.class.getPackage())
+                .addPackage(PostSearch.class.getPackage())
+                .addPackage(PostExporter.class.getPackage())
                 .addAsResource("test-persistence.xml", "META-INF/persistence.xml")
                 .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
         LOGGER.log(Level.INFO, war.toString(true));
@@ -98,6 +103,61 @@ public class PostResourcesTest {
         assertEquals(200, r.getStatus());
         String jsonString = r.readEntity(String.class);
         LOGGER.log(Level.INFO, "Get /posts result string: {0}", jsonString);
+        assertThat(jsonString).contains("\"data\"").doesNotContain("\"total\"");
+    }
+
+    @Test
+    @RunAsClient
+    public void testPostSummariesEndpoint() throws Exception {
+        var target = client.target(URI.create(baseUrl.toExternalForm() + "api/posts/summaries"));
+        try (Response r = target.request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+            LOGGER.log(Level.INFO, "Get /posts/summaries response status: {0}", r.getStatus());
+            assertEquals(200, r.getStatus());
+            assertThat(r.readEntity(String.class)).contains("\"data\"");
+        }
+        for (int size : new int[]{0, Integer.MAX_VALUE}) {
+            try (Response r = target.queryParam("size", size).request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+                assertEquals(400, r.getStatus());
+            }
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void testSearchEndpoint() throws Exception {
+        var target = client.target(URI.create(baseUrl.toExternalForm() + "api/posts/search"));
+        try (Response r = target.queryParam("q", "jakarta").request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+            LOGGER.log(Level.INFO, "Get /posts/search response status: {0}", r.getStatus());
+            assertEquals(200, r.getStatus());
+            assertThat(r.readEntity(String.class)).startsWith("[");
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void testExportEndpoint() throws Exception {
+        var target = client.target(URI.create(baseUrl.toExternalForm() + "api/posts/export"));
+        try (Response r = target.request().accept("application/x-ndjson").get()) {
+            LOGGER.log(Level.INFO, "Get /posts/export response status: {0}", r.getStatus());
+            assertEquals(200, r.getStatus());
+            assertThat(r.readEntity(String.class).lines()).allMatch(line -> line.startsWith("{"));
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void testPostsWithTotalAndInvalidCursor() throws Exception {
+        var target = client.target(URI.create(baseUrl.toExternalForm() + "api/posts"));
+        try (Response r = target.queryParam("total", true).request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+            assertEquals(200, r.getStatus());
+            assertThat(r.readEntity(String.class)).contains("\"total\"");
+        }
+        try (Response r = target.queryParam("after", "not-a-cursor").request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+            assertEquals(400, r.getStatus());
+        }
+        try (Response r = target.queryParam("size", 0).request().accept(MediaType.APPLICATION_JSON_TYPE).get()) {
+            assertEquals(400, r.getStatus());
+        }
     }
 
 }
@@ -0,0 +1,178 @@
+package com.example.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TitleIndexTest {
+    private static final Logger LOGGER = Logger.getLogger(TitleIndexTest.class.getName());
+
+    @Test
+    void testMatchesAllWordsIgnoringCaseAndPunctuation() {
+        var index = new TitleIndex();
+        var jakarta = UUID.randomUUID();
+        var data = UUID.randomUUID();
+        index.index(jakarta, "Jakarta EE 11: what's new?");
+        index.index(data, "Getting started with Jakarta Data");
+
+        assertThat(index.search("jakarta", 10)).extracting(SearchHit::id).contains(jakarta, data).hasSize(2);
+        assertThat(index.search("JAKARTA data", 10)).extracting(SearchHit::id).containsExactly(data);
+        assertThat(index.search("new, ee!", 10)).extracting(SearchHit::id).containsExactly(jakarta);
+        assertThat(index.search("spring", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void testWordsMatchAsPrefixes() {
+        var index = new TitleIndex();
+        var id = UUID.randomUUID();
+        index.index(id, "Persistence and transactions");
+
+        assertThat(index.search("pers trans", 10)).extracting(SearchHit::id).containsExactly(id);
+        // too short to be used as a prefix
+        assertThat(index.search("p", 10)).isEmpty();
+    }
+
+    @Test
+    void testRanksWholeWordsAndShortTitlesFirst() {
+        var index = new TitleIndex();
+        var records = UUID.randomUUID();
+        var javadoc = UUID.randomUUID();
+        var longer = UUID.randomUUID();
+        index.index(records, "java records");
+        index.index(javadoc, "javadoc tips");
+        index.index(longer, "java records and sealed classes explained");
+
+        assertThat(index.search("java", 10)).extracting(SearchHit::id).containsExactly(records, longer, javadoc);
+        assertThat(index.search("java records", 10)).extracting(SearchHit::id).containsExactly(records, longer);
+        assertThat(index.search("java", 2)).extracting(SearchHit::id).containsExactly(records, longer);
+    }
+
+    @Test
+    void testUpdatesAndRemovalsAreReflected() {
+        var index = new TitleIndex();
+        var id = UUID.randomUUID();
+        index.index(id, "Old title");
+        index.index(id, "New title");
+
+        assertThat(index.search("old", 10)).isEmpty();
+        assertThat(index.search("new title", 10)).extracting(SearchHit::id).containsExactly(id);
+
+        index.remove(id);
+        assertThat(index.search("title", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testSearchFindsWhatAScanFinds() {
+        compareWithScan(5_000, 1_000);
+    }
+
+    // the index against a scan of all the titles, which is what `title LIKE '%word%'` amounts to without a usable
+    // index, run with the benchmark profile and e.g. -Dsearch.benchmark.posts=1000000 for the full size.
+    @Test
+    @Tag("benchmark")
+    void testSearchBenchmark() {
+        compareWithScan(Integer.getInteger("search.benchmark.posts", 100_000), 20_000);
+    }
+
+    // titles of 3 to 8 words out of the vocabulary, the index and the scan must agree on whole word matches.
+    private static void compareWithScan(int posts, int vocabularySize) {
+        var random = new Random(42);
+        var vocabulary = new ArrayList<String>();
+        for (int i = 0; i < vocabularySize; i++) {
+            vocabulary.add(word(random));
+        }
+        var ids = new UUID[posts];
+        var titles = new String[posts];
+        var index = new TitleIndex();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < posts; i++) {
+            int length = 3 + random.nextInt(6);
+            var title = new StringBuilder();
+            for (int w = 0; w < length; w++) {
+                title.append(w == 0 ? "" : " ").append(vocabulary.get(random.nextInt(vocabulary.size())));
+            }
+            ids[i] = new UUID(0, i);
+            titles[i] = title.toString();
+            index.index(ids[i], titles[i]);
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        var queries = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(vocabulary.get(random.nextInt(vocabulary.size())));
+            var title = titles[random.nextInt(posts)].split(" ");
+            queries.add(title[0] + " " + title[1]);
+        }
+
+        var indexTimes = new ArrayList<Long>();
+        var scanTimes = new ArrayList<Long>();
+        for (String query : queries) {
+            start = System.nanoTime();
+            var hits = index.search(query, Integer.MAX_VALUE);
+            indexTimes.add(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            var scanned = scan(ids, titles, query);
+            scanTimes.add(System.nanoTime() - start);
+
+            // the scan matches substrings, keep the titles which contain the query words as words.
+            var words = TitleIndex.tokenize(query);
+            var expected = scanned.stream()
+                    .filter(id -> TitleIndex.tokenize(titles[(int) id.getLeastSignificantBits()]).containsAll(words))
+                    .collect(Collectors.toSet());
+            var exactHits = hits.stream().map(SearchHit::id)
+                    .filter(id -> TitleIndex.tokenize(titles[(int) id.getLeastSignificantBits()]).containsAll(words))
+                    .collect(Collectors.toSet());
+            assertThat(exactHits).isEqualTo(expected);
+        }
+
+        long indexMedian = median(indexTimes);
+        long scanMedian = median(scanTimes);
+        LOGGER.log(Level.INFO, "{0} titles indexed in {1} ms, median query: index {2} us, scan {3} us",
+                new Object[]{posts, buildMillis, indexMedian / 1_000, scanMedian / 1_000});
+    }
+
+    private static Set<UUID> scan(UUID[] ids, String[] titles, String query) {
+        var words = query.toLowerCase(Locale.ROOT).split(" ");
+        var matches = new HashSet<UUID>();
+        for (int i = 0; i < titles.length; i++) {
+            var title = titles[i].toLowerCase(Locale.ROOT);
+            boolean all = true;
+            for (String word : words) {
+                all &= title.contains(word);
+            }
+            if (all) {
+                matches.add(ids[i]);
+            }
+        }
+        return matches;
+    }
+
+    private static String word(Random random) {
+        var word = new StringBuilder();
+        int length = 4 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static long median(List<Long> values) {
+        return values.stream().sorted().toList().get(values.size() / 2);
+    }
+}